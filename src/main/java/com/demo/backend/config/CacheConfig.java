@@ -0,0 +1,11 @@
+package com.demo.backend.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+    public static final String USERS_BY_USERNAME = "usersByUsername";
+}
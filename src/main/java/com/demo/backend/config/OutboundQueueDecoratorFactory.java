@@ -0,0 +1,85 @@
+package com.demo.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Gives every WebSocket session its own bounded outbound queue, drained on a virtual thread per
+ * active session. Broker threads only enqueue, so a stalled client can hold at most queue-depth
+ * frames, never blocks a clientOutboundChannel thread and never delays other sessions' drains.
+ * A send blocked longer than the send time limit fails and the session is closed.
+ */
+@Component
+public class OutboundQueueDecoratorFactory implements WebSocketHandlerDecoratorFactory, DisposableBean {
+
+    public enum OverflowPolicy { DROP_OLDEST, DISCONNECT }
+
+    private final int queueDepth;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration sendTimeLimit;
+    private final ExecutorService sendExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-send-", 0).factory());
+    private final Set<QueuedWebSocketSession> sessions = ConcurrentHashMap.newKeySet();
+
+    final Counter dropped;
+    final Counter disconnected;
+    final Timer sendLatency;
+
+    public OutboundQueueDecoratorFactory(MeterRegistry meterRegistry,
+                                         @Value("${websocket.outbound.queue-depth:256}") int queueDepth,
+                                         @Value("${websocket.outbound.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                                         @Value("${websocket.outbound.send-time-limit:PT10S}") Duration sendTimeLimit) {
+        this.queueDepth = queueDepth;
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeLimit = sendTimeLimit;
+
+        Gauge.builder("websocket.sessions.active", sessions, Set::size).register(meterRegistry);
+        Gauge.builder("websocket.outbound.queue.depth", sessions,
+                s -> s.stream().mapToInt(QueuedWebSocketSession::queued).sum()).register(meterRegistry);
+        Gauge.builder("websocket.outbound.queue.depth.max", sessions,
+                s -> s.stream().mapToInt(QueuedWebSocketSession::queued).max().orElse(0)).register(meterRegistry);
+        this.dropped = meterRegistry.counter("websocket.outbound.dropped");
+        this.disconnected = meterRegistry.counter("websocket.outbound.disconnected");
+        this.sendLatency = meterRegistry.timer("websocket.outbound.send.latency");
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                QueuedWebSocketSession queued = new QueuedWebSocketSession(
+                        session, queueDepth, overflowPolicy, sendExecutor, OutboundQueueDecoratorFactory.this, sendTimeLimit);
+                sessions.add(queued);
+                super.afterConnectionEstablished(queued);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.removeIf(s -> s.getId().equals(session.getId()));
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        sendExecutor.shutdownNow();
+    }
+}
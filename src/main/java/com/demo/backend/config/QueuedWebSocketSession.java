@@ -0,0 +1,134 @@
+package com.demo.backend.config;
+
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Session whose sendMessage only enqueues. At most one drain task per session runs on the
+ * shared executor, so frames keep their order and the underlying session is used by one thread:
+ * the drain task is its only writer, including for closes requested by the overflow policy.
+ */
+@Slf4j
+class QueuedWebSocketSession extends WebSocketSessionDecorator {
+
+    // Read by Tomcat on every blocking send (milliseconds, Long)
+    static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private record Queued(WebSocketMessage<?> message, long enqueuedAt) {}
+
+    private final Deque<Queued> queue = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private boolean closeRequested; // guarded by queue
+    private final int depth;
+    private final OutboundQueueDecoratorFactory.OverflowPolicy policy;
+    private final Executor executor;
+    private final OutboundQueueDecoratorFactory metrics;
+
+    QueuedWebSocketSession(WebSocketSession delegate, int depth, OutboundQueueDecoratorFactory.OverflowPolicy policy,
+                           Executor executor, OutboundQueueDecoratorFactory metrics, Duration sendTimeLimit) {
+        super(delegate);
+        this.depth = depth;
+        this.policy = policy;
+        this.executor = executor;
+        this.metrics = metrics;
+        applySendTimeLimit(delegate, sendTimeLimit);
+    }
+
+    // Tomcat's blocking send otherwise waits for the client's TCP window without a bound
+    private static void applySendTimeLimit(WebSocketSession delegate, Duration sendTimeLimit) {
+        if (WebSocketSessionDecorator.unwrap(delegate) instanceof NativeWebSocketSession nativeSession
+                && nativeSession.getNativeSession() instanceof Session session) {
+            session.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeLimit.toMillis());
+        }
+    }
+
+    int queued() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        synchronized (queue) {
+            if (closeRequested) return;
+            if (queue.size() >= depth) {
+                if (policy == OutboundQueueDecoratorFactory.OverflowPolicy.DISCONNECT) {
+                    // A drain task may be mid-send; it performs the close once that send returns
+                    queue.clear();
+                    closeRequested = true;
+                    metrics.disconnected.increment();
+                } else {
+                    queue.pollFirst();
+                    metrics.dropped.increment();
+                }
+            }
+            if (!closeRequested) {
+                queue.addLast(new Queued(message, System.nanoTime()));
+            }
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                draining.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Queued next;
+            boolean close;
+            synchronized (queue) {
+                close = closeRequested;
+                next = close ? null : queue.pollFirst();
+                if (next == null && !close) {
+                    draining.set(false);
+                    return;
+                }
+            }
+            if (close) {
+                closeQuietly();
+                return; // draining stays set: nothing is sent on this session any more
+            }
+            try {
+                getDelegate().sendMessage(next.message());
+                metrics.sendLatency.record(System.nanoTime() - next.enqueuedAt(), TimeUnit.NANOSECONDS);
+            } catch (Exception ex) {
+                log.debug("Send to WebSocket session {} failed: {}", getId(), ex.getMessage());
+                synchronized (queue) {
+                    queue.clear();
+                    closeRequested = true;
+                }
+                closeQuietly();
+                return;
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (Exception ex) {
+            log.debug("Closing WebSocket session {} failed: {}", getId(), ex.getMessage());
+        }
+    }
+}
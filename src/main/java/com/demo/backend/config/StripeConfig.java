@@ -0,0 +1,26 @@
+package com.demo.backend.config;
+
+import com.stripe.StripeClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StripeConfig {
+
+    // One client for the application instead of setting the global Stripe.apiKey per request
+    @Bean
+    public StripeClient stripeClient(@Value("${stripe.secret-key:}") String secretKey,
+                                     @Value("${stripe.api-base:https://api.stripe.com}") String apiBase,
+                                     @Value("${stripe.client.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                     @Value("${stripe.client.read-timeout-ms:5000}") int readTimeoutMs,
+                                     @Value("${stripe.client.max-network-retries:1}") int maxNetworkRetries) {
+        return StripeClient.builder()
+                .setApiKey(secretKey == null || secretKey.isBlank() ? "sk_unconfigured" : secretKey)
+                .setApiBase(apiBase)
+                .setConnectTimeout(connectTimeoutMs)
+                .setReadTimeout(readTimeoutMs)
+                .setMaxNetworkRetries(maxNetworkRetries)
+                .build();
+    }
+}
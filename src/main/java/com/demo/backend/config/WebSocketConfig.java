@@ -1,6 +1,10 @@
 package com.demo.backend.config;
 
+import com.demo.backend.security.StompAuthChannelInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -12,7 +16,34 @@ import org.springframework.web.socket.sockjs.transport.handler.SockJsWebSocketHa
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
-    
+
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final OutboundQueueDecoratorFactory outboundQueueDecoratorFactory;
+
+    @Value("${websocket.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${websocket.inbound.pool-size:8}")
+    private int inboundPoolSize;
+
+    @Value("${websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound.pool-size:8}")
+    private int outboundPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:1000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.virtual-thread-concurrency:1000}")
+    private int virtualThreadConcurrency;
+
+    public WebSocketConfig(StompAuthChannelInterceptor stompAuthChannelInterceptor,
+                           OutboundQueueDecoratorFactory outboundQueueDecoratorFactory) {
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+        this.outboundQueueDecoratorFactory = outboundQueueDecoratorFactory;
+    }
+
     private static final String[] ALLOWED_ORIGINS = {
         "http://localhost:3000",
         "https://your-production-domain.com" // Add your production domain here
@@ -22,6 +53,37 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic");
         config.setApplicationDestinationPrefixes("/app");
+        // Virtual-thread channels hand every message its own thread, so ordering must be enforced
+        config.setPreservePublishOrder(virtualThreads);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authenticate on CONNECT and check task membership on SUBSCRIBE/SEND
+        registration.interceptors(stompAuthChannelInterceptor);
+        if (virtualThreads) {
+            registration.executor(virtualThreadExecutor("ws-inbound-"));
+        } else {
+            registration.taskExecutor().corePoolSize(inboundPoolSize).maxPoolSize(inboundPoolSize)
+                    .queueCapacity(inboundQueueCapacity);
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(virtualThreadExecutor("ws-outbound-"));
+        } else {
+            registration.taskExecutor().corePoolSize(outboundPoolSize).maxPoolSize(outboundPoolSize)
+                    .queueCapacity(outboundQueueCapacity);
+        }
+    }
+
+    private SimpleAsyncTaskExecutor virtualThreadExecutor(String prefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(virtualThreadConcurrency);
+        return executor;
     }
 
     @Override
@@ -31,12 +93,16 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins(ALLOWED_ORIGINS)
                 .setHandshakeHandler(new DefaultHandshakeHandler())
                 .withSockJS();
+        registry.setPreserveReceiveOrder(virtualThreads);
     }
     
     @Override
     public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
         registration.setMessageSizeLimit(1024 * 1024);
-        registration.setSendBufferSizeLimit(1024 * 1024);
-        registration.setSendTimeLimit(20000);
+        // Outbound frames are queued per session by OutboundQueueDecoratorFactory, so these
+        // limits only guard the enqueue step and can stay small
+        registration.setSendBufferSizeLimit(256 * 1024);
+        registration.setSendTimeLimit(5000);
+        registration.addDecoratorFactory(outboundQueueDecoratorFactory);
     }
 }
@@ -2,6 +2,7 @@ package com.demo.backend.controller;
 
 import com.demo.backend.model.User;
 import com.demo.backend.repository.UserRepository;
+import com.demo.backend.service.UserLookupService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -15,9 +16,11 @@ import java.util.Map;
 public class AdminController {
 
     private final UserRepository userRepository;
+    private final UserLookupService userLookupService;
 
-    public AdminController(UserRepository userRepository) {
+    public AdminController(UserRepository userRepository, UserLookupService userLookupService) {
         this.userRepository = userRepository;
+        this.userLookupService = userLookupService;
     }
 
     @GetMapping("/users")
@@ -32,7 +35,7 @@ public class AdminController {
         User u = userRepository.findById(id).orElse(null);
         if (u == null) return ResponseEntity.status(404).body(Map.of("error", "User not found"));
         if (req.status() != null) u.setStatus(req.status());
-        userRepository.save(u);
+        userLookupService.save(u);
         return ResponseEntity.ok(Map.of("message", "Status updated"));
     }
 }
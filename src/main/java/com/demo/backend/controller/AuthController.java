@@ -1,11 +1,14 @@
 package com.demo.backend.controller;
 
+import com.demo.backend.exceptions.PasswordHashingRejectedException;
 import com.demo.backend.model.Role;
 import com.demo.backend.model.User;
 import com.demo.backend.repository.UserRepository;
 import com.demo.backend.security.JwtService;
 import com.demo.backend.service.EmailService;
 import com.demo.backend.service.OtpService;
+import com.demo.backend.service.UserLookupService;
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -17,6 +20,8 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -32,14 +37,18 @@ public class AuthController {
     private final JwtService jwtService;
     private final EmailService emailService;
     private final OtpService otpService;
+    private final UserLookupService userLookupService;
+    private final TransactionTemplate transactionTemplate;
 
-    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtService jwtService, EmailService emailService, OtpService otpService) {
+    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtService jwtService, EmailService emailService, OtpService otpService, UserLookupService userLookupService, TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
         this.emailService = emailService;
         this.otpService = otpService;
+        this.userLookupService = userLookupService;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @PostMapping("/register")
@@ -51,32 +60,36 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("error", "Email already registered"));
         }
         Role role = req.role() != null ? req.role() : Role.CLIENT;
+        // Hashed before the transaction opens, so a connection is not held for the whole key stretch
+        String passwordHash = passwordEncoder.encode(req.password());
         User user = User.builder()
                 .username(req.username())
                 .email(req.email())
-                .passwordHash(passwordEncoder.encode(req.password()))
+                .passwordHash(passwordHash)
                 .fullName(req.fullName())
                 .bio(req.bio())
                 .role(role)
                 .status("PENDING_VERIFICATION")
                 .build();
-        User savedUser = userRepository.save(user);
 
-        // Generate and send OTP via email
-        String otp = otpService.generateAndSaveOtp(savedUser);
-        emailService.sendVerificationOtp(savedUser.getEmail(), otp);
+        // Save the user, generate the OTP and queue the email together; delivery happens off the request thread
+        transactionTemplate.executeWithoutResult(status -> {
+            User savedUser = userLookupService.save(user);
+            String otp = otpService.generateAndSaveOtp(savedUser);
+            emailService.sendVerificationOtp(savedUser.getEmail(), otp);
+        });
 
         return new ResponseEntity<>(Map.of("message", "Registration successful. Please check your email for a verification code."), HttpStatus.CREATED);
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest req) {
-        User user = userRepository.findByEmail(req.email()).orElse(null);
+        User user = userLookupService.findByEmail(req.email()).orElse(null);
         if (user != null && "PENDING_VERIFICATION".equals(user.getStatus())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Account not verified. Please check your email for the OTP."));
         }
 
-        if(user.getStatus().equals("SUSPENDED")) {
+        if (user != null && "SUSPENDED".equals(user.getStatus())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Account suspended."));
         }
 
@@ -85,10 +98,13 @@ public class AuthController {
                     new UsernamePasswordAuthenticationToken(req.email(), req.password())
             );
             SecurityContextHolder.getContext().setAuthentication(auth);
-            String accessToken = jwtService.generateToken(req.email(), new HashMap<>());
+            User authenticated = user != null ? user : userLookupService.findByEmail(req.email()).orElseThrow();
+            String accessToken = jwtService.generateToken(req.email(), jwtService.userClaims(authenticated));
             String refreshToken = jwtService.generateRefreshToken(req.email(), new HashMap<>());
             return ResponseEntity.ok(new AuthResponse(accessToken, refreshToken));
         } catch (org.springframework.security.core.AuthenticationException ex) {
+            // The provider wraps hashing rejections raised while looking up the user; surface them as 503
+            if (ex.getCause() instanceof PasswordHashingRejectedException rejected) throw rejected;
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Bad credentials"));
         }
     }
@@ -103,7 +119,7 @@ public class AuthController {
 
         if (otpService.validateOtp(user, req.otp())) {
             user.setStatus("ACTIVE");
-            userRepository.save(user);
+            userLookupService.save(user);
             otpService.clearOtp(user); // Clean up the used OTP
             return ResponseEntity.ok(Map.of("message", "Email verified successfully. You can now log in."));
         } else {
@@ -112,6 +128,7 @@ public class AuthController {
     }
 
     @PostMapping("/request-password-reset")
+    @Transactional
     public ResponseEntity<?> requestPasswordReset(@Valid @RequestBody ForgotPasswordRequest req) {
         userRepository.findByEmail(req.email()).ifPresent(user -> {
             String otp = otpService.generateAndSaveOtp(user);
@@ -132,7 +149,7 @@ public class AuthController {
 
         if (otpService.validateOtp(user, req.otp())) {
             user.setPasswordHash(passwordEncoder.encode(req.newPassword()));
-            userRepository.save(user);
+            userLookupService.save(user);
             otpService.clearOtp(user); // Clean up the used OTP
             return ResponseEntity.ok(Map.of("message", "Password has been reset successfully."));
         } else {
@@ -143,9 +160,18 @@ public class AuthController {
     @PostMapping("/refresh")
     public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest req) {
         try {
-            String username = jwtService.extractUsername(req.refreshToken());
-            // If token is expired or invalid, extractUsername will throw an exception
-            String accessToken = jwtService.generateToken(username, new HashMap<>());
+            // If token is expired or invalid, extractClaims will throw an exception
+            Claims claims = jwtService.extractClaims(req.refreshToken());
+            if (!JwtService.isRefreshToken(claims)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid or expired refresh token"));
+            }
+            String username = claims.getSubject();
+            // Re-read the user so role and status changes reach the claims of the new access token
+            User user = userLookupService.findByEmail(username).orElse(null);
+            if (user == null || !"ACTIVE".equals(user.getStatus())) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid or expired refresh token"));
+            }
+            String accessToken = jwtService.generateToken(username, jwtService.userClaims(user));
             String newRefreshToken = jwtService.generateRefreshToken(username, new HashMap<>());
             return ResponseEntity.ok(new AuthResponse(accessToken, newRefreshToken));
         } catch (Exception ex) {
@@ -3,13 +3,15 @@ package com.demo.backend.controller;
 import com.demo.backend.mappers.BidMapper;
 import com.demo.backend.model.Bid;
 import com.demo.backend.model.Task;
-import com.demo.backend.model.User;
 import com.demo.backend.dto.response.BidDto;
 import com.demo.backend.repository.BidRepository;
 import com.demo.backend.repository.TaskRepository;
-import com.demo.backend.repository.UserRepository;
+import com.demo.backend.security.AuthenticatedUser;
+import com.demo.backend.service.BidAcceptanceService;
+import com.demo.backend.service.BidPlacementService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -27,31 +29,31 @@ public class BidController {
 
     private final BidRepository bidRepository;
     private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    private final BidPlacementService bidPlacementService;
+    private final BidAcceptanceService bidAcceptanceService;
     private final BidMapper bidMapper;
 
-    public BidController(BidRepository bidRepository, TaskRepository taskRepository, UserRepository userRepository, BidMapper bidMapper) {
+    public BidController(BidRepository bidRepository, TaskRepository taskRepository, BidPlacementService bidPlacementService,
+                         BidAcceptanceService bidAcceptanceService, BidMapper bidMapper) {
         this.bidRepository = bidRepository;
         this.taskRepository = taskRepository;
-        this.userRepository = userRepository;
+        this.bidPlacementService = bidPlacementService;
+        this.bidAcceptanceService = bidAcceptanceService;
         this.bidMapper = bidMapper;
     }
 
-    public record BidRequest(@Min(0) BigDecimal amount) {}
+    public record BidRequest(@NotNull @Min(0) BigDecimal amount) {}
 
     @PostMapping("/api/tasks/{taskId}/bids")
     @PreAuthorize("hasRole('FREELANCER')")
-    public ResponseEntity<?> placeBid(@AuthenticationPrincipal UserDetails principal, @PathVariable Long taskId, @Valid @RequestBody BidRequest req) {
-        Task t = taskRepository.findById(taskId).orElse(null);
-        if (t == null) return ResponseEntity.status(404).body(Map.of("error", "Task not found"));
-        User freelancer = userRepository.findByUsername(principal.getUsername()).orElse(null);
-        if (freelancer == null) return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
-        if (bidRepository.findByTaskAndFreelancer(t, freelancer).isPresent()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "You have already bid on this task"));
-        }
-        Bid bid = Bid.builder().task(t).freelancer(freelancer).amount(req.amount()).status("PENDING").build();
-        var savedBid = bidRepository.save(bid);
-        return new ResponseEntity<>(bidMapper.toDto(savedBid), HttpStatus.CREATED);
+    public ResponseEntity<?> placeBid(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable Long taskId, @Valid @RequestBody BidRequest req) {
+        BidPlacementService.Placement placement = bidPlacementService.place(taskId, principal.getId(), req.amount());
+        return switch (placement.outcome()) {
+            case PLACED -> new ResponseEntity<>(placement.bid(), HttpStatus.CREATED);
+            case TASK_NOT_FOUND -> ResponseEntity.status(404).body(Map.of("error", "Task not found"));
+            case TASK_NOT_OPEN -> ResponseEntity.status(409).body(Map.of("error", "Task is not open for bids"));
+            case ALREADY_BID -> ResponseEntity.status(409).body(Map.of("error", "You have already bid on this task"));
+        };
     }
 
     @GetMapping("/api/tasks/{taskId}/bids")
@@ -79,35 +81,13 @@ public class BidController {
 
     @PostMapping("/api/bids/{bidId}/accept")
     @PreAuthorize("hasRole('CLIENT')")
-    @Transactional
-    public ResponseEntity<?> accept(@AuthenticationPrincipal UserDetails principal, @PathVariable Long bidId) {
-        // First, verify the bid exists and load the task with its creator in a single query
-        Optional<Bid> bidOpt = bidRepository.findByIdWithTaskAndCreator(bidId);
-        if (bidOpt.isEmpty()) {
-            Map<String, String> response = new HashMap<>();
-            response.put("error", "Bid not found");
-            return ResponseEntity.status(404).body(response);
-        }
-        
-        Bid bid = bidOpt.get();
-        
-        // Verify the current user is the task owner
-        if (!bid.getTask().getCreatedBy().getUsername().equals(principal.getUsername())) {
-            Map<String, String> response = new HashMap<>();
-            response.put("error", "Forbidden");
-            return ResponseEntity.status(403).body(response);
-        }
-        
-        // Update the bid status
-        bid.setStatus("ACCEPTED");
-        // Save is not strictly necessary with @Transactional, but keeping it for clarity
-        bidRepository.save(bid);
-        
-        // Reject all other bids for this task
-        bidRepository.rejectOtherBids(bid.getTask().getId(), bidId);
-        
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Bid accepted successfully");
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> accept(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable Long bidId) {
+        return switch (bidAcceptanceService.accept(bidId, principal.getId())) {
+            case ACCEPTED -> ResponseEntity.ok(Map.of("message", "Bid accepted successfully"));
+            case BID_NOT_FOUND -> ResponseEntity.status(404).body(Map.of("error", "Bid not found"));
+            case FORBIDDEN -> ResponseEntity.status(403).body(Map.of("error", "Forbidden"));
+            case TASK_NOT_OPEN -> ResponseEntity.status(409).body(Map.of("error", "Task is no longer open"));
+            case BID_NOT_PENDING -> ResponseEntity.status(409).body(Map.of("error", "Bid is no longer pending"));
+        };
     }
 }
@@ -1,15 +1,16 @@
 package com.demo.backend.controller;
 
-import com.demo.backend.model.Message;
-import com.demo.backend.model.Task;
-import com.demo.backend.model.User;
-import com.demo.backend.repository.MessageRepository;
-import com.demo.backend.repository.TaskRepository;
-import com.demo.backend.repository.UserRepository;
+import com.demo.backend.dto.response.MessageDto;
+import com.demo.backend.exceptions.ChatBackpressureException;
+import com.demo.backend.security.AuthenticatedUser;
+import com.demo.backend.service.ChatFanout;
+import com.demo.backend.service.ChatMessagePersister;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
 import java.util.Map;
@@ -17,32 +18,34 @@ import java.util.Map;
 @Controller
 public class ChatController {
 
-    private final SimpMessagingTemplate messagingTemplate;
-    private final MessageRepository messageRepository;
-    private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    private final ChatMessagePersister chatMessagePersister;
+    private final ChatFanout chatFanout;
 
-    public ChatController(SimpMessagingTemplate messagingTemplate, MessageRepository messageRepository, TaskRepository taskRepository, UserRepository userRepository) {
-        this.messagingTemplate = messagingTemplate;
-        this.messageRepository = messageRepository;
-        this.taskRepository = taskRepository;
-        this.userRepository = userRepository;
+    public ChatController(ChatMessagePersister chatMessagePersister, ChatFanout chatFanout) {
+        this.chatMessagePersister = chatMessagePersister;
+        this.chatFanout = chatFanout;
     }
 
-    public record ChatMessage(@NotBlank String senderUsername, @NotBlank String content) {}
+    // The sender comes from the authenticated STOMP session, not from the payload
+    public record ChatMessage(@NotBlank String content) {}
 
+    // StompAuthChannelInterceptor has already authenticated the session and checked task membership
     @MessageMapping("/tasks/{taskId}/sendMessage")
-    public void sendMessage(@DestinationVariable Long taskId, ChatMessage msg) {
-        Task task = taskRepository.findById(taskId).orElse(null);
-        if (task == null) return;
-        User sender = userRepository.findByUsername(msg.senderUsername()).orElse(null);
-        if (sender == null) return;
-        Message m = Message.builder().task(task).sender(sender).content(msg.content()).build();
-        messageRepository.save(m);
-        messagingTemplate.convertAndSend("/topic/tasks/" + taskId + "/receiveMessage", Map.of(
+    public void sendMessage(@DestinationVariable Long taskId, ChatMessage msg, Authentication authentication) {
+        if (msg.content() == null || msg.content().isBlank()) return;
+        AuthenticatedUser sender = (AuthenticatedUser) authentication.getPrincipal();
+        MessageDto saved = chatMessagePersister.persist(taskId, sender.getId(), sender.getUsername(), msg.content());
+        chatFanout.publish(taskId, Map.of(
+                "id", saved.getId(),
                 "taskId", taskId,
                 "sender", sender.getUsername(),
                 "content", msg.content()
         ));
     }
+
+    @MessageExceptionHandler(ChatBackpressureException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, String> backpressure(ChatBackpressureException ex) {
+        return Map.of("error", ex.getMessage());
+    }
 }
@@ -1,46 +1,145 @@
 package com.demo.backend.controller;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.demo.backend.dto.response.AttachmentDto;
+import com.demo.backend.repository.MessageRepository;
+import com.demo.backend.repository.TaskRepository;
+import com.demo.backend.security.AuthenticatedUser;
+import com.demo.backend.service.AttachmentService;
+import com.demo.backend.storage.LocalFileSender;
+import com.demo.backend.storage.StorageBackend;
+import com.demo.backend.storage.StorageKeys;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
-import java.net.URL;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/files")
 public class FileController {
 
-    @Value("${aws.s3.bucket:}")
-    private String bucket;
+    private final StorageBackend storage;
+    private final LocalFileSender localFileSender;
+    private final AttachmentService attachmentService;
+    private final TaskRepository taskRepository;
+    private final MessageRepository messageRepository;
 
-    @Value("${aws.s3.region:us-east-1}")
-    private String region;
+    public FileController(StorageBackend storage, LocalFileSender localFileSender, AttachmentService attachmentService,
+                          TaskRepository taskRepository, MessageRepository messageRepository) {
+        this.storage = storage;
+        this.localFileSender = localFileSender;
+        this.attachmentService = attachmentService;
+        this.taskRepository = taskRepository;
+        this.messageRepository = messageRepository;
+    }
 
+    /**
+     * Uploads an attachment, optionally linked to a task (and a message in it). Content already
+     * stored under the same SHA-256 is not written again.
+     */
     @PostMapping("/upload")
-    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) throws Exception {
-        if (bucket == null || bucket.isBlank()) {
-            return ResponseEntity.status(501).body(Map.of("error", "S3 not configured"));
-        }
-        String key = "uploads/" + UUID.randomUUID() + "-" + file.getOriginalFilename();
-        S3Client s3 = S3Client.builder()
-                .region(Region.of(region))
-                .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+    public ResponseEntity<?> upload(@AuthenticationPrincipal AuthenticatedUser principal,
+                                    @RequestParam("file") MultipartFile file,
+                                    @RequestParam(required = false) Long taskId,
+                                    @RequestParam(required = false) Long messageId) throws Exception {
+        if (!storage.isConfigured()) {
+            return ResponseEntity.status(501).body(Map.of("error", "Storage not configured"));
+        }
+        if (messageId != null && taskId == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "messageId requires taskId"));
+        }
+        if (taskId != null && !taskRepository.isParticipant(taskId, principal.getId())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Forbidden"));
+        }
+        if (messageId != null && !messageRepository.existsByIdAndTask_Id(messageId, taskId)) {
+            return ResponseEntity.status(404).body(Map.of("error", "Message not found"));
+        }
+        // The spooled part is read twice at most: once to hash, once to store new content
+        AttachmentService.StoredAttachment stored = attachmentService.store(file, file.getSize(),
+                file.getOriginalFilename(), file.getContentType(), principal.getId(), taskId, messageId);
+        Map<String, Object> body = new HashMap<>();
+        body.put("attachmentId", stored.id());
+        body.put("url", StorageKeys.downloadPath(stored.key()));
+        body.put("key", stored.key());
+        body.put("hash", stored.hash());
+        body.put("size", stored.size());
+        body.put("deduplicated", stored.deduplicated());
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping("/attachments/{id}")
+    public ResponseEntity<?> attachment(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable long id) {
+        Optional<AttachmentDto> attachment = attachmentService.find(id)
+                .filter(a -> canRead(principal, a.getUploadedBy(), a.getTaskId()));
+        if (attachment.isEmpty()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Attachment not found"));
+        }
+        return ResponseEntity.ok(attachment.get());
+    }
+
+    @DeleteMapping("/attachments/{id}")
+    public ResponseEntity<?> deleteAttachment(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable long id) {
+        if (!attachmentService.delete(id, principal.getId())) {
+            return ResponseEntity.status(404).body(Map.of("error", "Attachment not found"));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Serves a stored object by key. Blob and thumbnail keys are readable by whoever may read one
+     * of the attachments of that content; chunked uploads only by their uploader. Anything else,
+     * including keys the caller may not read, is a 404.
+     */
+    // Keys contain slashes (blobs/<xx>/<hash>, uploads/<user>/<uuid>-<name>), so capture the rest of the path
+    @GetMapping("/{*key}")
+    public ResponseEntity<?> download(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable String key,
+                                      HttpServletRequest request, HttpServletResponse response) throws Exception {
+        String objectKey = key.startsWith("/") ? key.substring(1) : key;
+        if (!canRead(principal, objectKey)) {
+            return ResponseEntity.status(404).body(Map.of("error", "File not found"));
+        }
+        Optional<Path> file;
+        try {
+            file = storage.localFile(objectKey);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid key"));
+        }
+        if (file.isPresent()) {
+            localFileSender.send(file.get(), request, response);
+            return null;
+        }
+        Optional<URI> remote = storage.isConfigured() ? storage.temporaryDownloadUrl(objectKey) : Optional.empty();
+        if (remote.isEmpty()) {
+            return ResponseEntity.status(404).body(Map.of("error", "File not found"));
+        }
+        // Remote stores serve the bytes themselves, through a signed URL that expires shortly
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(remote.get())
+                .cacheControl(CacheControl.noStore())
                 .build();
-        s3.putObject(PutObjectRequest.builder()
-                        .bucket(bucket)
-                        .key(key)
-                        .contentType(file.getContentType())
-                        .build(),
-                RequestBody.fromBytes(file.getBytes()));
-        String url = "https://" + bucket + ".s3." + region + ".amazonaws.com/" + key;
-        return ResponseEntity.ok(Map.of("url", url));
+    }
+
+    private boolean canRead(AuthenticatedUser principal, String objectKey) {
+        Optional<Long> uploadOwner = StorageKeys.uploadOwner(objectKey);
+        if (uploadOwner.isPresent()) return uploadOwner.get().equals(principal.getId());
+        return StorageKeys.blobHash(objectKey)
+                .map(hash -> attachmentService.audiences(hash).stream()
+                        .anyMatch(a -> canRead(principal, a.uploadedBy(), a.taskId())))
+                .orElse(false);
+    }
+
+    // Same rule for attachment metadata and for the bytes behind it
+    private boolean canRead(AuthenticatedUser principal, Long uploadedBy, Long taskId) {
+        return uploadedBy.equals(principal.getId())
+                || (taskId != null && taskRepository.isParticipant(taskId, principal.getId()));
     }
 }
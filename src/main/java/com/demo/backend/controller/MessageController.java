@@ -0,0 +1,87 @@
+package com.demo.backend.controller;
+
+import com.demo.backend.dto.response.MessageDto;
+import com.demo.backend.dto.response.MessagePageDto;
+import com.demo.backend.repository.MessageRepository;
+import com.demo.backend.repository.TaskRepository;
+import com.demo.backend.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class MessageController {
+
+    private final MessageRepository messageRepository;
+    private final TaskRepository taskRepository;
+
+    @Value("${chat.history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${chat.history.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${chat.history.settle-lag:PT2S}")
+    private Duration settleLag;
+
+    public MessageController(MessageRepository messageRepository, TaskRepository taskRepository) {
+        this.messageRepository = messageRepository;
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Chat history for a task. Without cursors returns the latest messages; "before" pages
+     * backwards from a message id and "after" catches up from the last id a client has seen.
+     * Pages follow (created_at, id) order, and the latest and "after" pages stop short of the
+     * settle lag: a message is stamped before its row commits (with write-behind up to a flush
+     * later, on any instance), so only older rows are known to be complete.
+     */
+    @GetMapping("/api/tasks/{taskId}/messages")
+    public ResponseEntity<?> history(@AuthenticationPrincipal AuthenticatedUser principal,
+                                     @PathVariable Long taskId,
+                                     @RequestParam(required = false) Long before,
+                                     @RequestParam(required = false) Long after,
+                                     @RequestParam(required = false) Integer limit) {
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Use either before or after, not both"));
+        }
+        if (!taskRepository.isParticipant(taskId, principal.getId())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Forbidden"));
+        }
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        // Fetch one extra row to know whether more messages exist in the paging direction
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+
+        OffsetDateTime settledBefore = OffsetDateTime.now().minus(settleLag);
+        Long cursor = after != null ? after : before;
+        OffsetDateTime cursorTime = null;
+        if (cursor != null) {
+            cursorTime = messageRepository.findCreatedAt(taskId, cursor).orElse(null);
+            if (cursorTime == null) {
+                return ResponseEntity.status(404).body(Map.of("error", "Message not found"));
+            }
+        }
+
+        List<MessageDto> rows;
+        if (after != null) {
+            rows = messageRepository.findAfter(taskId, cursorTime, after, settledBefore, page);
+        } else if (before != null) {
+            rows = messageRepository.findBefore(taskId, cursorTime, before, page);
+        } else {
+            rows = messageRepository.findLatest(taskId, settledBefore, page);
+        }
+        boolean hasMore = rows.size() > pageSize;
+        List<MessageDto> items = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        if (after == null) Collections.reverse(items);
+        return ResponseEntity.ok(new MessagePageDto(items, hasMore));
+    }
+}
@@ -7,6 +7,8 @@ import com.demo.backend.repository.MilestoneRepository;
 import com.demo.backend.repository.TaskRepository;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -62,6 +64,31 @@ public class MilestoneController {
         return new ResponseEntity<>(milestoneMapper.toDto(savedMilestone), HttpStatus.CREATED);
     }
 
+    public record CreateMilestonesRequest(@NotEmpty @Size(max = 100) List<@Valid CreateMilestoneRequest> milestones) {}
+
+    @PreAuthorize("hasRole('CLIENT')")
+    @PostMapping("/api/tasks/{taskId}/milestones/batch")
+    public ResponseEntity<?> createBatch(@AuthenticationPrincipal UserDetails principal, @PathVariable Long taskId, @Valid @RequestBody CreateMilestonesRequest req) {
+        Optional<Task> taskOpt = taskRepository.findByIdWithCreator(taskId);
+        if (taskOpt.isEmpty()) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Task not found");
+            return ResponseEntity.status(404).body(response);
+        }
+        Task task = taskOpt.get();
+        if (!task.getCreatedBy().getUsername().equals(principal.getUsername())) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Forbidden");
+            return ResponseEntity.status(403).body(response);
+        }
+        // Sequence ids are pre-allocated in blocks, so saveAll goes out as JDBC batches
+        List<Milestone> milestones = req.milestones().stream()
+            .map(m -> Milestone.builder().task(task).title(m.title()).status("PENDING").build())
+            .toList();
+        List<Milestone> saved = milestoneRepository.saveAll(milestones);
+        return new ResponseEntity<>(saved.stream().map(milestoneMapper::toDto).toList(), HttpStatus.CREATED);
+    }
+
     @PreAuthorize("hasRole('CLIENT')")
     @GetMapping("/api/tasks/{taskId}/milestones")
     @Transactional(readOnly = true)
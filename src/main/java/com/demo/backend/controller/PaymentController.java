@@ -1,43 +1,110 @@
 package com.demo.backend.controller;
 
-import com.stripe.Stripe;
-import com.stripe.model.PaymentIntent;
+import com.demo.backend.model.Task;
+import com.demo.backend.repository.PaymentRepository;
+import com.demo.backend.repository.TaskRepository;
+import com.demo.backend.security.AuthenticatedUser;
+import com.demo.backend.security.IdempotencyFilter;
+import com.demo.backend.service.PaymentGateway;
+import com.demo.backend.service.StripeWebhookService;
+import com.stripe.exception.SignatureVerificationException;
 import com.stripe.param.PaymentIntentCreateParams;
-import org.springframework.beans.factory.annotation.Value;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/payments")
 public class PaymentController {
 
-    @Value("${stripe.secret-key:}")
-    private String stripeSecretKey;
+    private final PaymentGateway paymentGateway;
+    private final StripeWebhookService stripeWebhookService;
+    private final TaskRepository taskRepository;
+    private final PaymentRepository paymentRepository;
 
-    public record CreatePaymentIntentRequest(BigDecimal amount, String currency) {}
+    public PaymentController(PaymentGateway paymentGateway, StripeWebhookService stripeWebhookService,
+                             TaskRepository taskRepository, PaymentRepository paymentRepository) {
+        this.paymentGateway = paymentGateway;
+        this.stripeWebhookService = stripeWebhookService;
+        this.taskRepository = taskRepository;
+        this.paymentRepository = paymentRepository;
+    }
+
+    // taskId is optional; when given the intent is tagged with it and tracked in payments
+    public record CreatePaymentIntentRequest(BigDecimal amount, String currency, Long taskId) {}
 
+    /**
+     * The Stripe call runs on PaymentGateway's executor; the request thread is released while it
+     * is in flight. Refusals and timeouts surface as 503 with Retry-After, and a retry reuses the
+     * Stripe idempotency key so a timed-out attempt that did create an intent is not duplicated.
+     * A request without an Idempotency-Key is given a fresh one, returned in the same header for
+     * the client to send when it retries that attempt.
+     */
     @PostMapping("/create-payment-intent")
-    public ResponseEntity<?> createPaymentIntent(@RequestBody CreatePaymentIntentRequest req) throws Exception {
-        if (stripeSecretKey == null || stripeSecretKey.isBlank()) {
-            return ResponseEntity.ok(Map.of("clientSecret", "test_client_secret"));
+    public CompletableFuture<ResponseEntity<?>> createPaymentIntent(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                                    @RequestBody CreatePaymentIntentRequest req,
+                                                                    @RequestHeader(value = IdempotencyFilter.HEADER, required = false) String idempotencyKey,
+                                                                    HttpServletResponse response) {
+        if (!paymentGateway.isConfigured()) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(Map.of("clientSecret", "test_client_secret")));
+        }
+        Optional<Task> task = req.taskId() == null ? Optional.empty() : taskRepository.findById(req.taskId());
+        if (req.taskId() != null && task.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(404).body(Map.of("error", "Task not found")));
+        }
+        if (task.isPresent() && !task.get().getCreatedBy().getId().equals(principal.getId())) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(403).body(Map.of("error", "Only the task owner can pay for it")));
         }
-        Stripe.apiKey = stripeSecretKey;
         long amountInCents = req.amount().multiply(new BigDecimal("100")).longValue();
-        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+        String currency = req.currency() == null ? "usd" : req.currency();
+        PaymentIntentCreateParams.Builder params = PaymentIntentCreateParams.builder()
                 .setAmount(amountInCents)
-                .setCurrency(req.currency() == null ? "usd" : req.currency())
-                .build();
-        PaymentIntent intent = PaymentIntent.create(params);
-        return ResponseEntity.ok(Map.of("clientSecret", intent.getClientSecret()));
+                .setCurrency(currency);
+        task.ifPresent(t -> params.putMetadata("task_id", String.valueOf(t.getId())));
+
+        String clientKey = idempotencyKey != null && !idempotencyKey.isBlank() ? idempotencyKey : UUID.randomUUID().toString();
+        response.setHeader(IdempotencyFilter.HEADER, clientKey);
+        String stripeKey = stripeIdempotencyKey(principal, clientKey);
+        return paymentGateway.createPaymentIntent(params.build(), stripeKey).thenApply(intent -> {
+            // Webhook events for this intent update the row; see StripeEventProcessor
+            task.ifPresent(t -> paymentRepository.insertIfAbsent(t.getId(), req.amount(), currency, intent.getId()));
+            return ResponseEntity.ok(Map.of("clientSecret", intent.getClientSecret()));
+        });
     }
 
+    /**
+     * Scoped to the user, so two users' keys never collide. Never derived from the task and amount:
+     * that would return the same intent for 24h, and a deliberate second payment could not be made.
+     */
+    static String stripeIdempotencyKey(AuthenticatedUser principal, String clientKey) {
+        return "user-" + principal.getId() + ":" + clientKey;
+    }
+
+    /**
+     * Stripe webhook. Only verifies and stores the event, so Stripe gets its 2xx within
+     * milliseconds; redelivered events are acknowledged without being stored twice.
+     */
     @PostMapping("/stripe/webhook")
     public ResponseEntity<?> webhook(@RequestBody String payload, @RequestHeader(value = "Stripe-Signature", required = false) String sig) {
-        // For brevity, not verifying signature here. In production, verify using webhook secret.
+        if (!stripeWebhookService.isConfigured()) {
+            return ResponseEntity.status(501).body(Map.of("error", "Webhook not configured"));
+        }
+        if (sig == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing signature"));
+        }
+        try {
+            stripeWebhookService.receive(payload, sig);
+        } catch (SignatureVerificationException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid signature"));
+        }
         return ResponseEntity.ok(Map.of("received", true));
     }
 }
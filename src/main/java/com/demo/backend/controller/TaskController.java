@@ -4,7 +4,9 @@ import com.demo.backend.mappers.TaskMapper;
 import com.demo.backend.model.Task;
 import com.demo.backend.model.User;
 import com.demo.backend.repository.TaskRepository;
-import com.demo.backend.repository.UserRepository;
+import com.demo.backend.service.TaskFeedService;
+import com.demo.backend.service.TaskSearchService;
+import com.demo.backend.service.UserLookupService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -23,19 +25,23 @@ import java.util.Map;
 public class TaskController {
 
     private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    private final UserLookupService userLookupService;
     private final TaskMapper taskMapper;
+    private final TaskFeedService taskFeedService;
+    private final TaskSearchService taskSearchService;
 
-    public TaskController(TaskRepository taskRepository, UserRepository userRepository, TaskMapper taskMapper) {
+    public TaskController(TaskRepository taskRepository, UserLookupService userLookupService, TaskMapper taskMapper, TaskFeedService taskFeedService, TaskSearchService taskSearchService) {
         this.taskRepository = taskRepository;
-        this.userRepository = userRepository;
+        this.userLookupService = userLookupService;
         this.taskMapper = taskMapper;
+        this.taskFeedService = taskFeedService;
+        this.taskSearchService = taskSearchService;
     }
 
     @PostMapping
     @PreAuthorize("hasRole('CLIENT')")
     public ResponseEntity<?> create(@AuthenticationPrincipal UserDetails principal, @Valid @RequestBody CreateTaskRequest req) {
-        User user = userRepository.findByUsername(principal.getUsername()).orElse(null);
+        User user = userLookupService.findByUsername(principal.getUsername()).orElse(null);
         if (user == null) return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
         Task t = Task.builder()
                 .title(req.title())
@@ -49,14 +55,36 @@ public class TaskController {
     }
 
     @GetMapping
-    public ResponseEntity<?> list() {
-        var tasks = taskRepository.findAll().stream().map(taskMapper::toDto).toList();
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<?> list(@RequestParam(required = false) String status,
+                                  @RequestParam(required = false) BigDecimal minBudget,
+                                  @RequestParam(required = false) BigDecimal maxBudget,
+                                  @RequestParam(required = false) Long createdBy,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit) {
+        try {
+            var filter = new TaskFeedService.FeedFilter(status, minBudget, maxBudget, createdBy);
+            return ResponseEntity.ok(taskFeedService.page(filter, cursor, limit));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam("q") String q,
+                                    @RequestParam(required = false) String status,
+                                    @RequestParam(required = false) Integer page,
+                                    @RequestParam(required = false) Integer size) {
+        if (q == null || q.isBlank()) return ResponseEntity.badRequest().body(Map.of("error", "Query must not be empty"));
+        try {
+            return ResponseEntity.ok(taskSearchService.search(q.trim(), status, page, size));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> get(@PathVariable Long id) {
-        return taskRepository.findById(id)
+        return taskRepository.findByIdWithBidStats(id)
                 .<ResponseEntity<?>>map(task -> ResponseEntity.ok(taskMapper.toDto(task)))
                 .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "Task not found")));
     }
@@ -64,7 +92,7 @@ public class TaskController {
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('CLIENT')")
     public ResponseEntity<?> update(@AuthenticationPrincipal UserDetails principal, @PathVariable Long id, @Valid @RequestBody UpdateTaskRequest req) {
-        Task t = taskRepository.findById(id).orElse(null);
+        Task t = taskRepository.findByIdWithBidStats(id).orElse(null);
         if (t == null) return ResponseEntity.status(404).body(Map.of("error", "Task not found"));
         if (!t.getCreatedBy().getUsername().equals(principal.getUsername())) {
             return ResponseEntity.status(403).body(Map.of("error", "Forbidden"));
@@ -73,8 +101,9 @@ public class TaskController {
         if (req.description() != null) t.setDescription(req.description());
         if (req.budget() != null) t.setBudget(req.budget());
         if (req.status() != null) t.setStatus(req.status());
-        var updated = taskRepository.save(t);
-        return ResponseEntity.ok(taskMapper.toDto(updated));
+        taskRepository.save(t);
+        // Mapped from the loaded task: its bid stats are initialized, the merged copy's are not
+        return ResponseEntity.ok(taskMapper.toDto(t));
     }
 
     @DeleteMapping("/{id}")
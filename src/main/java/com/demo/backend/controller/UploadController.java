@@ -0,0 +1,93 @@
+package com.demo.backend.controller;
+
+import com.demo.backend.security.AuthenticatedUser;
+import com.demo.backend.service.UploadSessionService;
+import com.demo.backend.storage.StorageKeys;
+import com.demo.backend.storage.StoredObject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Chunked upload protocol: initiate, PUT each part (raw body), complete or abort.
+ * GET on a session lists the stored parts so an interrupted client can resume.
+ */
+@RestController
+@RequestMapping("/api/files/upload-sessions")
+public class UploadController {
+
+    private final UploadSessionService uploadSessionService;
+
+    public UploadController(UploadSessionService uploadSessionService) {
+        this.uploadSessionService = uploadSessionService;
+    }
+
+    public record InitiateUploadRequest(@NotBlank String filename, String contentType) {}
+
+    @PostMapping
+    public ResponseEntity<?> initiate(@AuthenticationPrincipal AuthenticatedUser principal,
+                                      @Valid @RequestBody InitiateUploadRequest req) throws Exception {
+        return ResponseEntity.ok(uploadSessionService.initiate(principal.getId(), req.filename(), req.contentType()));
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> status(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable UUID uploadId) {
+        try {
+            return ResponseEntity.ok(uploadSessionService.status(principal.getId(), uploadId));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(404).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @PutMapping("/{uploadId}/parts/{partNumber}")
+    public ResponseEntity<?> putPart(@AuthenticationPrincipal AuthenticatedUser principal,
+                                     @PathVariable UUID uploadId,
+                                     @PathVariable int partNumber,
+                                     HttpServletRequest request) throws Exception {
+        // The body is streamed straight to storage; Content-Length is required
+        try (InputStream in = request.getInputStream()) {
+            return ResponseEntity.ok(uploadSessionService.putPart(
+                    principal.getId(), uploadId, partNumber, in, request.getContentLengthLong()));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(404).body(Map.of("error", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(409).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<?> complete(@AuthenticationPrincipal AuthenticatedUser principal,
+                                      @PathVariable UUID uploadId) throws Exception {
+        try {
+            StoredObject stored = uploadSessionService.complete(principal.getId(), uploadId);
+            return ResponseEntity.ok(Map.of("url", StorageKeys.downloadPath(stored.key()), "key", stored.key(), "size", stored.size()));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(404).body(Map.of("error", ex.getMessage()));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(409).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<?> abort(@AuthenticationPrincipal AuthenticatedUser principal,
+                                   @PathVariable UUID uploadId) throws Exception {
+        try {
+            uploadSessionService.abort(principal.getId(), uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(404).body(Map.of("error", ex.getMessage()));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(409).body(Map.of("error", ex.getMessage()));
+        }
+    }
+}
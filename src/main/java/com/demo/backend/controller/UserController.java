@@ -2,6 +2,7 @@ package com.demo.backend.controller;
 
 import com.demo.backend.model.User;
 import com.demo.backend.repository.UserRepository;
+import com.demo.backend.service.UserLookupService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Size;
 import org.springframework.http.ResponseEntity;
@@ -16,9 +17,11 @@ import java.util.Map;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final UserLookupService userLookupService;
 
-    public UserController(UserRepository userRepository) {
+    public UserController(UserRepository userRepository, UserLookupService userLookupService) {
         this.userRepository = userRepository;
+        this.userLookupService = userLookupService;
     }
 
     public record UpdateProfileRequest(@Size(max = 150) String fullName, @Size(max = 5000) String bio) {}
@@ -26,7 +29,7 @@ public class UserController {
     @GetMapping("/me")
     public ResponseEntity<?> me(@AuthenticationPrincipal UserDetails principal) {
         if (principal == null) return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
-        User user = userRepository.findByUsername(principal.getUsername()).orElse(null);
+        User user = userLookupService.findByUsername(principal.getUsername()).orElse(null);
         if (user == null) return ResponseEntity.status(404).body(Map.of("error", "User not found"));
         return ResponseEntity.ok(Map.of(
                 "id", user.getId(),
@@ -46,7 +49,7 @@ public class UserController {
         if (user == null) return ResponseEntity.status(404).body(Map.of("error", "User not found"));
         user.setFullName(req.fullName());
         user.setBio(req.bio());
-        userRepository.save(user);
+        userLookupService.save(user);
         return ResponseEntity.ok(Map.of("message", "Profile updated"));
     }
 }
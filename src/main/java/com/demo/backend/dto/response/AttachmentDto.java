@@ -0,0 +1,27 @@
+package com.demo.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentDto {
+    private Long id;
+    private String filename;
+    private String contentType;
+    private long size;
+    private String url;
+    private Long uploadedBy;
+    private Long taskId;
+    private Long messageId;
+    // Preview fields stay null until the background processor has handled the blob
+    private Integer width;
+    private Integer height;
+    private Integer pageCount;
+    private String thumbnailUrl;
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.demo.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageDto {
+    private Long id;
+    private Long taskId;
+    private String sender;
+    private String content;
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.demo.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageDto {
+    // Always in ascending (createdAt, id) order
+    private List<MessageDto> items;
+    private boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package com.demo.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OffsetPageDto<T> {
+    private List<T> items;
+    private int page;
+    private int size;
+    private boolean hasMore;
+}
@@ -12,4 +12,7 @@ public class TaskDto {
     private BigDecimal budget;
     private String status;
     private Long createdByClient;
+    private int bidCount;
+    private BigDecimal lowestBid;
+    private BigDecimal averageBid;
 }
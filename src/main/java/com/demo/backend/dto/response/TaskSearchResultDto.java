@@ -0,0 +1,18 @@
+package com.demo.backend.dto.response;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class TaskSearchResultDto {
+    private Long id;
+    private String title;
+    private BigDecimal budget;
+    private String status;
+    private Long createdByClient;
+    private double rank;
+    // HTML-escaped title and description fragments with matches wrapped in <mark></mark>
+    private String titleHighlight;
+    private String snippet;
+}
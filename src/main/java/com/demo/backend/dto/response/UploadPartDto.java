@@ -0,0 +1,14 @@
+package com.demo.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadPartDto {
+    private int partNumber;
+    private long size;
+    private String etag;
+}
@@ -0,0 +1,22 @@
+package com.demo.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDto {
+    private UUID uploadId;
+    private String filename;
+    // Every part except the last must be exactly this size
+    private long partSize;
+    private OffsetDateTime expiresAt;
+    // Parts already stored, so a client can resume with the missing ones
+    private List<UploadPartDto> parts;
+}
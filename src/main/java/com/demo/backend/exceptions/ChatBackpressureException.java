@@ -0,0 +1,10 @@
+package com.demo.backend.exceptions;
+
+/**
+ * Thrown when the chat write-behind queue stays full and a message cannot be accepted.
+ */
+public class ChatBackpressureException extends RuntimeException {
+    public ChatBackpressureException(String message) {
+        super(message);
+    }
+}
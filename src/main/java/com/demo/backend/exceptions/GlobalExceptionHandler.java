@@ -1,7 +1,10 @@
 package com.demo.backend.exceptions;
 
+import com.stripe.exception.StripeException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -23,6 +26,56 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, status);
     }
 
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ApiErrorResponse> passwordHashingRejected(PasswordHashingRejectedException exception) {
+        var status = HttpStatus.SERVICE_UNAVAILABLE;
+        var errorResponse = ApiErrorResponse.builder()
+                .statusCode(status.value())
+                .errorReason(status.getReasonPhrase())
+                .message(exception.getMessage())
+                .build();
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(PaymentProviderUnavailableException.class)
+    public ResponseEntity<ApiErrorResponse> paymentProviderUnavailable(PaymentProviderUnavailableException exception) {
+        var status = HttpStatus.SERVICE_UNAVAILABLE;
+        var errorResponse = ApiErrorResponse.builder()
+                .statusCode(status.value())
+                .errorReason(status.getReasonPhrase())
+                .message(exception.getMessage())
+                .build();
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    // Errors Stripe reported for a request it did process (invalid params, declined card, ...)
+    @ExceptionHandler(StripeException.class)
+    public ResponseEntity<ApiErrorResponse> stripeError(StripeException exception) {
+        var status = HttpStatus.BAD_GATEWAY;
+        var errorResponse = ApiErrorResponse.builder()
+                .statusCode(status.value())
+                .errorReason(status.getReasonPhrase())
+                .message(exception.getUserMessage() != null ? exception.getUserMessage() : "Payment provider error")
+                .build();
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
+    // A concurrent change (e.g. the task was accepted) bumped the version since the entity was loaded
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> optimisticLockFailure(ObjectOptimisticLockingFailureException exception) {
+        var status = HttpStatus.CONFLICT;
+        var errorResponse = ApiErrorResponse.builder()
+                .statusCode(status.value())
+                .errorReason(status.getReasonPhrase())
+                .message("The resource was modified concurrently, reload and retry")
+                .build();
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiErrorResponse> validationErrors(
             MethodArgumentNotValidException exception
@@ -0,0 +1,16 @@
+package com.demo.backend.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the password hashing executor is saturated and the request should be retried later.
+ */
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
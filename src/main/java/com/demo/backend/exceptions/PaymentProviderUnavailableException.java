@@ -0,0 +1,17 @@
+package com.demo.backend.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a payment provider call is refused (circuit open, too many calls in flight)
+ * or timed out, and the request should be retried later.
+ */
+@Getter
+public class PaymentProviderUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PaymentProviderUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -8,5 +8,8 @@ import org.mapstruct.Mapping;
 @Mapper(componentModel = "spring")
 public interface TaskMapper {
     @Mapping(target = "createdByClient", source = "createdBy.id")
+    @Mapping(target = "bidCount", source = "bidStats.bidCount")
+    @Mapping(target = "lowestBid", source = "bidStats.lowestAmount")
+    @Mapping(target = "averageBid", source = "bidStats.averageAmount")
     TaskDto toDto(Task task);
 }
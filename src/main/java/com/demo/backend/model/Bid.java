@@ -16,7 +16,8 @@ import java.time.OffsetDateTime;
 @Table(name = "bids", uniqueConstraints = @UniqueConstraint(columnNames = {"task_id", "freelancer_id"}))
 public class Bid {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bids_id_seq")
+    @SequenceGenerator(name = "bids_id_seq", sequenceName = "bids_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,6 +34,9 @@ public class Bid {
     @Column(nullable = false, length = 30)
     private String status;
 
+    @Version
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private OffsetDateTime createdAt;
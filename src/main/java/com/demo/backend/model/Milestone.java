@@ -15,7 +15,8 @@ import java.time.OffsetDateTime;
 @Table(name = "milestones")
 public class Milestone {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "milestones_id_seq")
+    @SequenceGenerator(name = "milestones_id_seq", sequenceName = "milestones_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -15,7 +15,8 @@ import java.time.OffsetDateTime;
 public class OtpToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "otp_tokens_id_seq")
+    @SequenceGenerator(name = "otp_tokens_id_seq", sequenceName = "otp_tokens_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -16,7 +16,8 @@ import java.time.OffsetDateTime;
 @Table(name = "payments")
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_id_seq")
+    @SequenceGenerator(name = "payments_id_seq", sequenceName = "payments_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -32,6 +33,15 @@ public class Payment {
     @Column(nullable = false, length = 30)
     private String status;
 
+    @Column(length = 3)
+    private String currency;
+
+    @Column(name = "stripe_event_created_at")
+    private OffsetDateTime stripeEventCreatedAt;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private OffsetDateTime createdAt;
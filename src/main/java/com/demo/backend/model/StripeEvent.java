@@ -0,0 +1,49 @@
+package com.demo.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stripe_events")
+public class StripeEvent {
+    // Stripe's event id (evt_...), which is what makes redeliveries idempotent
+    @Id
+    private String id;
+
+    @Column(nullable = false, length = 100)
+    private String type;
+
+    @Column(name = "payment_intent_id", length = 100)
+    private String paymentIntentId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "stripe_created_at", nullable = false)
+    private OffsetDateTime stripeCreatedAt;
+
+    @Column(name = "received_at", nullable = false)
+    private OffsetDateTime receivedAt;
+
+    @Column(name = "processed_at")
+    private OffsetDateTime processedAt;
+}
@@ -0,0 +1,38 @@
+package com.demo.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Read-only view of a task's bid statistics. Rows are created and updated by database
+ * triggers on tasks and bids (see V12__Task_bid_stats.sql), never by the application.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@Table(name = "task_bid_stats")
+public class TaskBidStats {
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "bid_count", nullable = false)
+    private int bidCount;
+
+    @Column(name = "amount_sum", nullable = false, precision = 14, scale = 2)
+    private BigDecimal amountSum;
+
+    @Column(name = "lowest_amount", precision = 12, scale = 2)
+    private BigDecimal lowestAmount;
+
+    public BigDecimal getAverageAmount() {
+        if (bidCount == 0) return null;
+        return amountSum.divide(BigDecimal.valueOf(bidCount), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,38 @@
+package com.demo.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "upload_parts")
+public class UploadPart {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "upload_parts_id_seq")
+    @SequenceGenerator(name = "upload_parts_id_seq", sequenceName = "upload_parts_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private UUID sessionId;
+
+    @Column(name = "part_number", nullable = false)
+    private int partNumber;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private String etag;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,52 @@
+package com.demo.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "upload_sessions")
+public class UploadSession {
+    // Assigned by the application and handed to the client as the upload id
+    @Id
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "object_key", nullable = false, length = 512)
+    private String objectKey;
+
+    @Column(nullable = false)
+    private String filename;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "part_size", nullable = false)
+    private long partSize;
+
+    // S3 UploadId, or the local backend's part directory name
+    @Column(name = "storage_upload_id", nullable = false, length = 1024)
+    private String storageUploadId;
+
+    // OPEN while parts are accepted; COMPLETING, ABORTING or EXPIRING once claimed for cleanup
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    // For a claimed session this is the claim's lease: if the claimer dies, the sweep takes over
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private OffsetDateTime createdAt;
+}
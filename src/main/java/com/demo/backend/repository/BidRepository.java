@@ -2,7 +2,6 @@ package com.demo.backend.repository;
 
 import com.demo.backend.model.Bid;
 import com.demo.backend.model.Task;
-import com.demo.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -21,8 +20,12 @@ public interface BidRepository extends JpaRepository<Bid, Long> {
     
     @Modifying
     @Transactional
-    @Query("UPDATE Bid b SET b.status = 'REJECTED' WHERE b.task.id = :taskId AND b.id != :acceptedBidId AND b.status = 'PENDING'")
+    @Query("UPDATE Bid b SET b.status = 'REJECTED', b.version = b.version + 1 " +
+            "WHERE b.task.id = :taskId AND b.id != :acceptedBidId AND b.status = 'PENDING'")
     void rejectOtherBids(@Param("taskId") Long taskId, @Param("acceptedBidId") Long acceptedBidId);
 
-    Optional<Bid> findByTaskAndFreelancer(Task task, User freelancer);
+    // Conditional transition: 0 rows when the bid is no longer pending
+    @Modifying
+    @Query("UPDATE Bid b SET b.status = 'ACCEPTED', b.version = b.version + 1 WHERE b.id = :bidId AND b.status = 'PENDING'")
+    int acceptIfPending(@Param("bidId") Long bidId);
 }
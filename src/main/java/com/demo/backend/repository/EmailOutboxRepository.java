@@ -0,0 +1,24 @@
+package com.demo.backend.repository;
+
+import com.demo.backend.model.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    // Due entries not leased by another dispatcher; the row locks only last until the caller
+    // has written its lease, which then keeps other dispatchers away while it delivers
+    @Query(value = """
+            SELECT * FROM email_outbox
+            WHERE status = 'PENDING' AND next_attempt_at <= now()
+              AND (locked_until IS NULL OR locked_until <= now())
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<EmailOutbox> claimDue(@Param("limit") int limit);
+
+    long countByStatus(String status);
+}
@@ -1,11 +1,49 @@
 package com.demo.backend.repository;
 
+import com.demo.backend.dto.response.MessageDto;
 import com.demo.backend.model.Message;
 import com.demo.backend.model.Task;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findByTask(Task task);
+
+    boolean existsByIdAndTask_Id(Long id, Long taskId);
+
+    // Keyset pages over (task_id, created_at, id) projected straight into DTOs; only the sender's username
+    // is joined. Rows newer than settledBefore may still be committed out of order and are left for later.
+    @Query("SELECT new com.demo.backend.dto.response.MessageDto(m.id, m.task.id, s.username, m.content, m.createdAt) " +
+            "FROM Message m JOIN m.sender s WHERE m.task.id = :taskId AND m.createdAt < :settledBefore " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageDto> findLatest(@Param("taskId") Long taskId, @Param("settledBefore") OffsetDateTime settledBefore,
+                                Pageable pageable);
+
+    @Query("SELECT new com.demo.backend.dto.response.MessageDto(m.id, m.task.id, s.username, m.content, m.createdAt) " +
+            "FROM Message m JOIN m.sender s WHERE m.task.id = :taskId " +
+            "AND (m.createdAt, m.id) < (:beforeTime, :beforeId) ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageDto> findBefore(@Param("taskId") Long taskId, @Param("beforeTime") OffsetDateTime beforeTime,
+                                @Param("beforeId") Long beforeId, Pageable pageable);
+
+    @Query("SELECT new com.demo.backend.dto.response.MessageDto(m.id, m.task.id, s.username, m.content, m.createdAt) " +
+            "FROM Message m JOIN m.sender s WHERE m.task.id = :taskId " +
+            "AND (m.createdAt, m.id) > (:afterTime, :afterId) AND m.createdAt < :settledBefore " +
+            "ORDER BY m.createdAt ASC, m.id ASC")
+    List<MessageDto> findAfter(@Param("taskId") Long taskId, @Param("afterTime") OffsetDateTime afterTime,
+                               @Param("afterId") Long afterId, @Param("settledBefore") OffsetDateTime settledBefore,
+                               Pageable pageable);
+
+    // Position of a cursor message in the history order
+    @Query("SELECT m.createdAt FROM Message m WHERE m.id = :id AND m.task.id = :taskId")
+    Optional<OffsetDateTime> findCreatedAt(@Param("taskId") Long taskId, @Param("id") Long id);
+
+    @Query("SELECT new com.demo.backend.dto.response.MessageDto(m.id, m.task.id, s.username, m.content, m.createdAt) " +
+            "FROM Message m JOIN m.sender s WHERE m.id = :id")
+    Optional<MessageDto> findDtoById(@Param("id") Long id);
 }
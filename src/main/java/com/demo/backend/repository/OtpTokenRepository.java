@@ -3,10 +3,18 @@ package com.demo.backend.repository;
 import com.demo.backend.model.OtpToken;
 import com.demo.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.Optional;
 
 public interface OtpTokenRepository extends JpaRepository<OtpToken, Long> {
     Optional<OtpToken> findByUser(User user);
     Optional<OtpToken> findByToken(String token);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("DELETE FROM OtpToken o WHERE o.expiryDate < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
@@ -2,6 +2,28 @@ package com.demo.backend.repository;
 
 import com.demo.backend.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    Optional<Payment> findByStripePaymentId(String stripePaymentId);
+
+    // Both create-payment-intent and the payment_intent.created webhook record the intent; whichever
+    // comes second finds the row already there. Returns 0 in that case.
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO payments (task_id, amount, currency, stripe_payment_id, status, updated_at)
+            VALUES (:taskId, :amount, :currency, :stripePaymentId, 'CREATED', now())
+            ON CONFLICT (stripe_payment_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("taskId") Long taskId,
+                       @Param("amount") BigDecimal amount,
+                       @Param("currency") String currency,
+                       @Param("stripePaymentId") String stripePaymentId);
 }
@@ -0,0 +1,52 @@
+package com.demo.backend.repository;
+
+import com.demo.backend.model.StripeEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface StripeEventRepository extends JpaRepository<StripeEvent, String> {
+
+    // Returns 0 for a redelivered event id
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO stripe_events (id, type, payment_intent_id, payload, status, stripe_created_at)
+            VALUES (:id, :type, :paymentIntentId, :payload, :status, :stripeCreatedAt)
+            ON CONFLICT (id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id,
+                       @Param("type") String type,
+                       @Param("paymentIntentId") String paymentIntentId,
+                       @Param("payload") String payload,
+                       @Param("status") String status,
+                       @Param("stripeCreatedAt") OffsetDateTime stripeCreatedAt);
+
+    @Query(value = """
+            SELECT payment_intent_id FROM stripe_events
+            WHERE status = 'PENDING' AND next_attempt_at <= now()
+            GROUP BY payment_intent_id
+            ORDER BY min(received_at)
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<String> findPaymentIntentsWithDueEvents(@Param("limit") int limit);
+
+    // Oldest first: events of one PaymentIntent are applied in the order Stripe created them
+    @Query(value = """
+            SELECT * FROM stripe_events
+            WHERE payment_intent_id = :paymentIntentId AND status = 'PENDING'
+            ORDER BY stripe_created_at, received_at
+            """, nativeQuery = true)
+    List<StripeEvent> findPendingForPaymentIntent(@Param("paymentIntentId") String paymentIntentId);
+
+    // Serializes processing of one PaymentIntent across instances for the current transaction
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext(:paymentIntentId))", nativeQuery = true)
+    boolean tryLockPaymentIntent(@Param("paymentIntentId") String paymentIntentId);
+
+    long countByStatus(String status);
+}
@@ -2,12 +2,64 @@ package com.demo.backend.repository;
 
 import com.demo.backend.model.Task;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
     @Query("SELECT t FROM Task t LEFT JOIN FETCH t.createdBy WHERE t.id = :id")
     Optional<Task> findByIdWithCreator(@Param("id") Long id);
+
+    @Query("SELECT t FROM Task t LEFT JOIN FETCH t.bidStats WHERE t.id = :id")
+    Optional<Task> findByIdWithBidStats(@Param("id") Long id);
+
+    // Conditional transition: 0 rows when the task is no longer open, e.g. another bid was accepted first
+    @Modifying
+    @Query("UPDATE Task t SET t.status = 'IN_PROGRESS', t.version = t.version + 1 WHERE t.id = :taskId AND t.status = 'OPEN'")
+    int startIfOpen(@Param("taskId") Long taskId);
+
+    // Task owner or the freelancer whose bid was accepted
+    @Query("SELECT COUNT(t) > 0 FROM Task t WHERE t.id = :taskId AND (t.createdBy.id = :userId OR EXISTS " +
+            "(SELECT b.id FROM Bid b WHERE b.task = t AND b.freelancer.id = :userId AND b.status = 'ACCEPTED'))")
+    boolean isParticipant(@Param("taskId") Long taskId, @Param("userId") Long userId);
+
+    interface TaskSearchRow {
+        Long getId();
+        String getTitle();
+        BigDecimal getBudget();
+        String getStatus();
+        Long getCreatedBy();
+        Double getRank();
+        String getTitleHighlight();
+        String getSnippet();
+    }
+
+    // Ranks matches through the GIN index, then builds headlines only for the rows of the requested page.
+    // Matches are delimited with U+E000 / U+E001 (stripped from the text first) rather than markup, so the
+    // caller can HTML-escape user content before turning them into <mark> tags.
+    @Query(value = """
+            SELECT r.id AS "id", r.title AS "title", r.budget AS "budget", r.status AS "status",
+                   r.created_by AS "createdBy", r.rank AS "rank",
+                   ts_headline('english', translate(r.title, chr(57344) || chr(57345), ''), q,
+                               'StartSel=' || chr(57344) || ', StopSel=' || chr(57345) || ', HighlightAll=true') AS "titleHighlight",
+                   ts_headline('english', translate(coalesce(r.description, ''), chr(57344) || chr(57345), ''), q,
+                               'StartSel=' || chr(57344) || ', StopSel=' || chr(57345) || ', MaxFragments=2, MaxWords=30, MinWords=10') AS "snippet"
+            FROM (
+                SELECT t.id, t.title, t.description, t.budget, t.status, t.created_by,
+                       ts_rank_cd(t.search_vector, q) AS rank
+                FROM tasks t, websearch_to_tsquery('english', :query) q
+                WHERE t.search_vector @@ q
+                  AND (:status = '' OR t.status = :status)
+                ORDER BY rank DESC, t.id DESC
+                LIMIT :limit OFFSET :offset
+            ) r, websearch_to_tsquery('english', :query) q
+            ORDER BY r.rank DESC, r.id DESC
+            """, nativeQuery = true)
+    List<TaskSearchRow> search(@Param("query") String query, @Param("status") String status,
+                               @Param("limit") int limit, @Param("offset") long offset);
 }
@@ -0,0 +1,59 @@
+package com.demo.backend.repository;
+
+import com.demo.backend.model.Task;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> hasStatus(String status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Task> budgetAtLeast(BigDecimal min) {
+        return (root, query, cb) -> min == null ? null : cb.greaterThanOrEqualTo(root.get("budget"), min);
+    }
+
+    public static Specification<Task> budgetAtMost(BigDecimal max) {
+        return (root, query, cb) -> max == null ? null : cb.lessThanOrEqualTo(root.get("budget"), max);
+    }
+
+    public static Specification<Task> createdBy(Long userId) {
+        return (root, query, cb) -> userId == null ? null : cb.equal(root.get("createdBy").get("id"), userId);
+    }
+
+    /**
+     * Fetches the bid statistics in the same query. Adds no predicate; skipped for count queries.
+     */
+    public static Specification<Task> fetchBidStats() {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("bidStats", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Keyset predicate for the (created_at DESC, id DESC) feed order: rows strictly after the cursor.
+     * The redundant {@code created_at <= ?} bound lets Postgres start the index scan at the cursor.
+     */
+    public static Specification<Task> after(OffsetDateTime createdAt, Long id) {
+        return (root, query, cb) -> {
+            if (createdAt == null || id == null) return null;
+            return cb.and(
+                    cb.lessThanOrEqualTo(root.get("createdAt"), createdAt),
+                    cb.or(
+                            cb.lessThan(root.get("createdAt"), createdAt),
+                            cb.lessThan(root.get("id"), id)
+                    )
+            );
+        };
+    }
+}
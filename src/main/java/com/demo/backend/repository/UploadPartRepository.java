@@ -0,0 +1,14 @@
+package com.demo.backend.repository;
+
+import com.demo.backend.model.UploadPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UploadPartRepository extends JpaRepository<UploadPart, Long> {
+    List<UploadPart> findBySessionIdOrderByPartNumber(UUID sessionId);
+
+    Optional<UploadPart> findBySessionIdAndPartNumber(UUID sessionId, int partNumber);
+}
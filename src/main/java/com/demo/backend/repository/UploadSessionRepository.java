@@ -0,0 +1,39 @@
+package com.demo.backend.repository;
+
+import com.demo.backend.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    // Conditional transition: 0 rows when the session already left the expected status
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.status = :to, s.expiresAt = :expiresAt WHERE s.id = :id AND s.status = :from")
+    int transition(@Param("id") UUID id, @Param("from") String from, @Param("to") String to,
+                   @Param("expiresAt") OffsetDateTime expiresAt);
+
+    // Keeps an open session alive without overwriting a status set concurrently
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.expiresAt = :expiresAt WHERE s.id = :id AND s.status = 'OPEN'")
+    int touch(@Param("id") UUID id, @Param("expiresAt") OffsetDateTime expiresAt);
+
+    // Locks expired sessions (or claims whose lease ran out) until the caller's transaction ends;
+    // sweeps on other instances skip them
+    @Query(value = """
+            SELECT * FROM upload_sessions
+            WHERE expires_at < now()
+            ORDER BY expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<UploadSession> lockExpired(@Param("limit") int limit);
+}
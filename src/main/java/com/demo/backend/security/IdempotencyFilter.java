@@ -0,0 +1,319 @@
+package com.demo.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Makes retried POSTs safe for clients that send an {@code Idempotency-Key} header. The first
+ * request with a key runs and its response is stored; retries with the same key and the same
+ * request are answered from the store without running the handler, and reusing a key for a
+ * different request is a 422. A duplicate arriving while the first request still runs gets an
+ * immediate 409 with Retry-After instead of holding a request thread while it waits.
+ * 5xx responses are not kept, so the client can retry them.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> METHODS = Set.of(HttpMethod.POST.name(), HttpMethod.PUT.name(),
+            HttpMethod.PATCH.name(), HttpMethod.DELETE.name());
+    private static final String IN_FLIGHT_ATTRIBUTE = IdempotencyFilter.class.getName() + ".inFlight";
+
+    private final IdempotencyStore store;
+    private final List<String> pathPatterns;
+    private final int maxBodyBytes;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Counter replayed;
+    private final Counter mismatched;
+    private final Counter inProgress;
+
+    public IdempotencyFilter(IdempotencyStore store, List<String> pathPatterns, int maxBodyBytes,
+                             MeterRegistry meterRegistry) {
+        this.store = store;
+        this.pathPatterns = pathPatterns;
+        this.maxBodyBytes = maxBodyBytes;
+        this.replayed = meterRegistry.counter("idempotency.requests", "outcome", "replayed");
+        this.mismatched = meterRegistry.counter("idempotency.requests", "outcome", "key_reused");
+        this.inProgress = meterRegistry.counter("idempotency.requests", "outcome", "in_progress");
+    }
+
+    // The owner's response is finished on the async dispatch for CompletableFuture handlers
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(HEADER) == null || !METHODS.contains(request.getMethod())) return true;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return pathPatterns.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            chain.doFilter(request, response);
+            InFlight inFlight = (InFlight) request.getAttribute(IN_FLIGHT_ATTRIBUTE);
+            if (inFlight != null && !request.isAsyncStarted()) {
+                inFlight.finish(WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class));
+            }
+            return;
+        }
+
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, 400, "Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (!(auth != null && auth.getPrincipal() instanceof AuthenticatedUser user)) {
+            // Keys are scoped per user; unauthenticated requests are rejected further down anyway
+            chain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            writeError(response, 413, "Request body too large for an idempotent request");
+            return;
+        }
+        IdempotencyStore.Key storeKey = new IdempotencyStore.Key(user.getId(), key);
+        byte[] requestHash = hash(request, body);
+
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(storeKey, requestHash);
+            if (claim.rejected()) {
+                writeError(response, 429, "Too many Idempotency-Keys in use, retry later");
+                return;
+            }
+            IdempotencyStore.Entry entry = claim.entry();
+            if (!entry.matches(requestHash)) {
+                mismatched.increment();
+                writeError(response, 422, "Idempotency-Key was already used for a different request");
+                return;
+            }
+            if (claim.owner()) {
+                execute(new CachedBodyRequest(request, body), response, chain, new InFlight(storeKey, entry));
+                return;
+            }
+            if (!entry.result().isDone()) {
+                inProgress.increment();
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                writeError(response, 409, "A request with this Idempotency-Key is still in progress");
+                return;
+            }
+            IdempotencyStore.StoredResponse stored = entry.result().getNow(null);
+            if (stored != null) {
+                replayed.increment();
+                replay(response, stored);
+                return;
+            }
+            // The first attempt was not kept (5xx or error): claim the key again and run this one
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain, InFlight inFlight)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (ServletException | IOException | RuntimeException ex) {
+            inFlight.abandon();
+            throw ex;
+        }
+        if (request.isAsyncStarted()) {
+            request.setAttribute(IN_FLIGHT_ATTRIBUTE, inFlight);
+            // Covers async requests that end without an async dispatch reaching this filter
+            request.getAsyncContext().addListener(inFlight);
+        } else {
+            inFlight.finish(wrapper);
+        }
+    }
+
+    private static void replay(HttpServletResponse response, IdempotencyStore.StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) response.setContentType(stored.contentType());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private static byte[] hash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            return digest.digest(body);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    /** The owner's claim on a key until its response is stored or given up. */
+    private final class InFlight implements AsyncListener {
+
+        private final IdempotencyStore.Key key;
+        private final IdempotencyStore.Entry entry;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        InFlight(IdempotencyStore.Key key, IdempotencyStore.Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        void finish(ContentCachingResponseWrapper wrapper) throws IOException {
+            if (wrapper == null) {
+                abandon();
+                return;
+            }
+            if (done.compareAndSet(false, true)) {
+                int status = wrapper.getStatus();
+                if (status < 500) {
+                    store.complete(key, entry, new IdempotencyStore.StoredResponse(status, wrapper.getContentType(),
+                            wrapper.getContentAsByteArray()));
+                } else {
+                    store.release(key, entry);
+                }
+            }
+            wrapper.copyBodyToResponse();
+        }
+
+        void abandon() {
+            if (done.compareAndSet(false, true)) {
+                store.release(key, entry);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            abandon();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            abandon();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /** Replays the body already read for hashing to the rest of the chain. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so a non-blocking reader is told at once that it can read it all
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    Objects.requireNonNull(listener, "listener");
+                    try {
+                        if (!isFinished()) listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded in-memory store of Idempotency-Key results. The first request for a key claims it and
+ * leaves an in-flight entry that duplicates are turned away on; its response then becomes the
+ * answer for every retry until the entry expires.
+ * <p>
+ * In-flight entries weigh nothing, so the size bound only ever evicts finished ones and a
+ * running request cannot lose its claim. Each user may hold a limited number of keys, so one
+ * client cannot push everyone else's entries out.
+ */
+public class IdempotencyStore {
+
+    /** Keys are scoped per user. */
+    public record Key(long userId, String idempotencyKey) {}
+
+    /** A response as it is replayed: status, content type and body. */
+    public record StoredResponse(int status, String contentType, byte[] body) {}
+
+    /** One key's record. {@code result} completes with null when the response was not kept. */
+    public record Entry(byte[] requestHash, CompletableFuture<StoredResponse> result) {
+        public boolean matches(byte[] hash) {
+            return Arrays.equals(requestHash, hash);
+        }
+    }
+
+    /**
+     * Result of {@link #claim}: the entry holding the key and whether this request created it.
+     * No entry means the user already holds the maximum number of keys.
+     */
+    public record Claim(Entry entry, boolean owner) {
+        public boolean rejected() {
+            return entry == null;
+        }
+    }
+
+    private final Cache<Key, Entry> entries;
+    private final ConcurrentMap<Long, Integer> keysPerUser = new ConcurrentHashMap<>();
+    private final int maxKeysPerUser;
+
+    public IdempotencyStore(int maxEntries, int maxKeysPerUser, Duration ttl, MeterRegistry meterRegistry) {
+        this.maxKeysPerUser = maxKeysPerUser;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxEntries)
+                .<Key, Entry>weigher((key, entry) -> entry.result().isDone() ? 1 : 0)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                    if (key != null && cause != RemovalCause.REPLACED) {
+                        keysPerUser.computeIfPresent(key.userId(), (user, n) -> n > 1 ? n - 1 : null);
+                    }
+                })
+                .build();
+        Gauge.builder("idempotency.store.size", entries, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    /**
+     * Claims the key for this request. The owner must later {@link #complete} or {@link #release}
+     * the entry; anyone else gets the entry already holding the key.
+     */
+    public Claim claim(Key key, byte[] requestHash) {
+        Entry existing = entries.getIfPresent(key);
+        if (existing != null) return new Claim(existing, false);
+        if (keysPerUser.getOrDefault(key.userId(), 0) >= maxKeysPerUser) return new Claim(null, false);
+
+        Entry mine = new Entry(requestHash, new CompletableFuture<>());
+        existing = entries.asMap().putIfAbsent(key, mine);
+        if (existing != null) return new Claim(existing, false);
+        keysPerUser.merge(key.userId(), 1, Integer::sum);
+        return new Claim(mine, true);
+    }
+
+    /** Keeps the response for retries; the entry now counts towards the size bound. */
+    public void complete(Key key, Entry entry, StoredResponse response) {
+        entry.result().complete(response);
+        // Writing the entry again makes the cache weigh it as finished
+        entries.asMap().replace(key, entry, entry);
+    }
+
+    /** Forgets the key so a retry runs again. */
+    public void release(Key key, Entry entry) {
+        entries.asMap().remove(key, entry);
+        entry.result().complete(null);
+    }
+}
@@ -1,29 +1,85 @@
 package com.demo.backend.security;
 
+import com.demo.backend.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
+    // Claims signed into access tokens so requests can be authenticated without a user lookup
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_USERNAME = "username";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_STATUS = "status";
+
+    // Keeps a refresh token from being used as a bearer token and the other way round
+    public static final String CLAIM_TOKEN_TYPE = "token_type";
+    public static final String TOKEN_TYPE_ACCESS = "access";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
     @Value("${security.jwt.secret}")
     private String secret;
 
-    @Value("${security.jwt.refreshTokenExpiration}")
+    @Value("${security.jwt.accessTokenExpiration}")
     private long accessExpirationMs;
 
-    @Value("${security.jwt.accessTokenExpiration}")
+    @Value("${security.jwt.refreshTokenExpiration}")
     private long refreshExpirationMs;
 
-    private Key getSigningKey() {
+    @Value("${security.jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${security.jwt.verified-cache.ttl-seconds:300}")
+    private long verifiedCacheTtlSeconds;
+
+    // Issue and expiry times are read from here, so tests can move time forward
+    private Clock clock = Clock.systemUTC();
+
+    // Built once: decoding the secret and building the parser used to happen on every request
+    private Key signingKey;
+    private JwtParser parser;
+
+    // SHA-256 digest of an already verified token -> a read-only copy of its claims
+    private Cache<String, VerifiedClaims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = buildSigningKey();
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .setClock(() -> Date.from(clock.instant()))
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new ExpireAtTokenExpiry(TimeUnit.SECONDS.toNanos(verifiedCacheTtlSeconds)))
+                .build();
+    }
+
+    private Key buildSigningKey() {
         try {
             byte[] keyBytes = Decoders.BASE64.decode(secret);
             return Keys.hmacShaKeyFor(keyBytes);
@@ -33,31 +89,114 @@ public class JwtService {
     }
 
     public String generateToken(String username, Map<String, Object> claims) {
-        return buildToken(username, claims, accessExpirationMs);
+        return buildToken(username, typed(claims, TOKEN_TYPE_ACCESS), accessExpirationMs);
+    }
+
+    public Map<String, Object> userClaims(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_USERNAME, user.getUsername());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_STATUS, user.getStatus());
+        return claims;
     }
 
     public String generateRefreshToken(String username, Map<String, Object> claims) {
-        return buildToken(username, claims, refreshExpirationMs);
+        return buildToken(username, typed(claims, TOKEN_TYPE_REFRESH), refreshExpirationMs);
+    }
+
+    private static Map<String, Object> typed(Map<String, Object> claims, String type) {
+        Map<String, Object> typed = new HashMap<>(claims);
+        typed.put(CLAIM_TOKEN_TYPE, type);
+        return typed;
+    }
+
+    /**
+     * Tokens issued before the type claim existed are told apart by the user claims, which only
+     * access tokens ever carried.
+     */
+    public static boolean isAccessToken(Claims claims) {
+        Object type = claims.get(CLAIM_TOKEN_TYPE);
+        return type == null ? claims.get(CLAIM_ROLE) != null : TOKEN_TYPE_ACCESS.equals(type);
+    }
+
+    public static boolean isRefreshToken(Claims claims) {
+        Object type = claims.get(CLAIM_TOKEN_TYPE);
+        return type == null ? claims.get(CLAIM_ROLE) == null : TOKEN_TYPE_REFRESH.equals(type);
     }
 
     private String buildToken(String username, Map<String, Object> claims, long ttlMs) {
-        Date now = new Date();
+        Date now = Date.from(clock.instant());
         Date expiry = new Date(now.getTime() + ttlMs);
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(expiry)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return extractClaims(token).getSubject();
+    }
+
+    /**
+     * Verifies the token and returns its claims. Tokens verified before are answered from a
+     * bounded cache whose entries never outlive the token's own expiration. Every caller gets
+     * its own copy of the claims, so changing them cannot affect what later requests see.
+     */
+    public Claims extractClaims(String token) {
+        String digest = digest(token);
+        VerifiedClaims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.expiresAtMillis() > clock.millis()) {
+            return Jwts.claims(cached.values());
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, new VerifiedClaims(Collections.unmodifiableMap(new LinkedHashMap<>(claims)),
+                    claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    /** A verified token's claims as cached: never handed out or modified. */
+    private record VerifiedClaims(Map<String, Object> values, long expiresAtMillis) {}
+
+    /**
+     * Expires a cached entry after the configured TTL or at the token's {@code exp}, whichever comes first.
+     */
+    private final class ExpireAtTokenExpiry implements Expiry<String, VerifiedClaims> {
+
+        private final long maxTtlNanos;
+
+        ExpireAtTokenExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedClaims claims, long currentTime) {
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(claims.expiresAtMillis() - clock.millis());
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
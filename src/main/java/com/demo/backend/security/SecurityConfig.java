@@ -1,5 +1,8 @@
 package com.demo.backend.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
@@ -15,10 +18,13 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
@@ -34,8 +40,18 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${security.password.bcrypt.strength:0}") int strength,
+                                           @Value("${security.password.bcrypt.target-ms:100}") long targetMs,
+                                           @Value("${security.password.hashing-threads:0}") int threads,
+                                           @Value("${security.password.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password.timeout-ms:5000}") long timeoutMs,
+                                           @Value("${security.password.retry-after-seconds:1}") long retryAfterSeconds) {
+        // Strength 0 means calibrate to the latency budget; existing hashes keep verifying at their own cost
+        int bcryptStrength = strength > 0 ? strength : BoundedPasswordEncoder.calibrateBcryptStrength(targetMs, 10, 14);
+        int hashingThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), hashingThreads, queueCapacity,
+                timeoutMs, retryAfterSeconds, meterRegistry);
     }
 
     @Bean
@@ -44,15 +60,20 @@ public class SecurityConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider () {
+    public AuthenticationProvider authenticationProvider (PasswordEncoder passwordEncoder) {
         var authProvider = new DaoAuthenticationProvider();
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         authProvider.setUserDetailsService(userDetailsService);
         return authProvider;
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, MeterRegistry meterRegistry,
+                                                   @Value("${idempotency.paths}") List<String> idempotentPaths,
+                                                   @Value("${idempotency.max-entries:10000}") int maxEntries,
+                                                   @Value("${idempotency.max-keys-per-user:1000}") int maxKeysPerUser,
+                                                   @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                                                   @Value("${idempotency.max-body-bytes:65536}") int maxBodyBytes) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(request -> {
                     CorsConfiguration config = new CorsConfiguration();
@@ -61,21 +82,29 @@ public class SecurityConfig {
                         "https://your-production-domain.com" // Add your production domain here
                     ));
                     config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-                    config.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token"));
-                    config.setExposedHeaders(Arrays.asList("x-auth-token"));
+                    config.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token", "idempotency-key",
+                            "range", "if-range", "if-none-match", "if-modified-since"));
+                    config.setExposedHeaders(Arrays.asList("x-auth-token", "etag", "last-modified",
+                            "accept-ranges", "content-range", "content-length", "idempotency-key", "idempotent-replayed"));
                     config.setAllowCredentials(true);
                     return config;
                 }))
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // The original request was already authorized; async results are dispatched again
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
                                 "/swagger-ui.html",
+                                "/actuator/health",
+                                "/api/payments/stripe/webhook", // authenticated by Stripe-Signature
                                 "/ws/**" // Allow WebSocket connections
                         ).permitAll()
+                        // Metrics expose request paths, queue sizes and business counters
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(exc -> {
@@ -84,6 +113,10 @@ public class SecurityConfig {
                             response.setStatus(HttpStatus.FORBIDDEN.value())));
                 });
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // After authorization, so only requests that may run the handler claim a key
+        IdempotencyStore idempotencyStore = new IdempotencyStore(maxEntries, maxKeysPerUser, ttl, meterRegistry);
+        http.addFilterAfter(new IdempotencyFilter(idempotencyStore, idempotentPaths, maxBodyBytes, meterRegistry),
+                AuthorizationFilter.class);
         return http.build();
     }
 }
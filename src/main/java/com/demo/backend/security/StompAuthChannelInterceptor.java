@@ -0,0 +1,102 @@
+package com.demo.backend.security;
+
+import com.demo.backend.repository.TaskRepository;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Authenticates STOMP sessions once, on CONNECT, from the Authorization header and binds the
+ * principal to the session. Task room access (owner or accepted freelancer) is checked the first
+ * time a session subscribes or sends to a task and then remembered for the session.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Pattern TASK_TOPIC = Pattern.compile("^/topic/tasks/(\\d+)/receiveMessage$");
+    private static final Pattern TASK_SEND = Pattern.compile("^/app/tasks/(\\d+)/sendMessage$");
+    private static final String ALLOWED_TASKS_ATTR = "chat.allowedTasks";
+
+    private final TokenAuthenticator tokenAuthenticator;
+    private final TaskRepository taskRepository;
+
+    public StompAuthChannelInterceptor(TokenAuthenticator tokenAuthenticator, TaskRepository taskRepository) {
+        this.tokenAuthenticator = tokenAuthenticator;
+        this.taskRepository = taskRepository;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) return message;
+
+        switch (accessor.getCommand()) {
+            case CONNECT -> accessor.setUser(authenticate(accessor));
+            case SUBSCRIBE -> {
+                String destination = accessor.getDestination();
+                if (destination != null && destination.startsWith("/user/")) break;
+                authorizeTask(accessor, taskId(TASK_TOPIC, destination));
+            }
+            case SEND -> authorizeTask(accessor, taskId(TASK_SEND, accessor.getDestination()));
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new MessagingException("Missing bearer token");
+        }
+        UsernamePasswordAuthenticationToken auth;
+        try {
+            auth = tokenAuthenticator.authenticate(header.substring(7));
+        } catch (Exception ex) {
+            throw new MessagingException("Invalid token");
+        }
+        if (auth == null) throw new MessagingException("Invalid token");
+        return auth;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void authorizeTask(StompHeaderAccessor accessor, Long taskId) {
+        AuthenticatedUser user = currentUser(accessor.getUser());
+        Map<String, Object> session = accessor.getSessionAttributes();
+        if (session == null) throw new MessagingException("No session");
+
+        Set<Long> allowed = (Set<Long>) session.computeIfAbsent(ALLOWED_TASKS_ATTR, k -> ConcurrentHashMap.newKeySet());
+        if (allowed.contains(taskId)) return;
+        if (!taskRepository.isParticipant(taskId, user.getId())) {
+            throw new MessagingException("Forbidden");
+        }
+        allowed.add(taskId);
+    }
+
+    private static AuthenticatedUser currentUser(Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken token
+                && token.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        throw new MessagingException("Unauthenticated");
+    }
+
+    private static Long taskId(Pattern pattern, String destination) {
+        Matcher matcher = destination == null ? null : pattern.matcher(destination);
+        if (matcher == null || !matcher.matches()) throw new MessagingException("Forbidden destination");
+        return Long.valueOf(matcher.group(1));
+    }
+}
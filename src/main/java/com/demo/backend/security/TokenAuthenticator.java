@@ -0,0 +1,53 @@
+package com.demo.backend.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class TokenAuthenticator {
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+
+    @Value("${security.jwt.self-contained-claims:true}")
+    private boolean selfContainedClaims;
+
+    public TokenAuthenticator(JwtService jwtService, UserDetailsService userDetailsService) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    /**
+     * Verifies the bearer token and builds the authentication for it, or returns null if the
+     * token does not identify an active user. Only access tokens are accepted: a refresh token
+     * lives for weeks and is meant for /api/auth/refresh alone. When self-contained claims are
+     * enabled, the user claims are resolved without touching the database; otherwise the user
+     * is looked up.
+     */
+    public UsernamePasswordAuthenticationToken authenticate(String token) {
+        Claims claims = jwtService.extractClaims(token);
+        if (claims.getSubject() == null || !JwtService.isAccessToken(claims)) return null;
+
+        if (selfContainedClaims && claims.get(JwtService.CLAIM_ROLE) != null) {
+            if (!"ACTIVE".equals(claims.get(JwtService.CLAIM_STATUS, String.class))) return null;
+            var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + claims.get(JwtService.CLAIM_ROLE, String.class)));
+            var principal = new AuthenticatedUser(
+                    claims.get(JwtService.CLAIM_USER_ID, Long.class),
+                    claims.get(JwtService.CLAIM_USERNAME, String.class),
+                    "",
+                    authorities
+            );
+            return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+}
@@ -0,0 +1,205 @@
+package com.demo.backend.service;
+
+import com.demo.backend.storage.StorageBackend;
+import com.demo.backend.storage.StorageKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Works through attachment_jobs: generates a thumbnail and metadata for each new image or PDF
+ * blob. Jobs are claimed in batches no larger than the number of idle workers, so the pool's
+ * parallelism is the only bound on concurrent decoding. Failures are retried with exponential
+ * backoff; a job whose worker died is picked up again when its lease expires, unless it has
+ * used up its attempts, in which case it is marked FAILED so a blob that kills its worker
+ * cannot be retried forever.
+ */
+@Slf4j
+@Component
+public class AttachmentProcessor implements DisposableBean {
+
+    private static final String CLAIM_SQL =
+            "UPDATE attachment_jobs SET status = 'RUNNING', attempts = attempts + 1, locked_until = ? " +
+            "WHERE id IN (SELECT id FROM attachment_jobs " +
+            "  WHERE (status = 'PENDING' AND next_attempt_at <= now()) " +
+            "     OR (status = 'RUNNING' AND locked_until < now() AND attempts < ?) " +
+            "  ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, blob_hash, attempts";
+
+    // Jobs whose worker died on their last attempt; the claim above no longer picks them up
+    private static final String EXPIRE_SQL =
+            "UPDATE attachment_jobs SET status = 'FAILED', locked_until = NULL, " +
+            "last_error = 'Lease expired on the last attempt', finished_at = now() " +
+            "WHERE status = 'RUNNING' AND locked_until < now() AND attempts >= ?";
+
+    private record Job(long id, String blobHash, int attempts) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StorageBackend storage;
+    private final PreviewGenerator previewGenerator;
+    private final ThreadPoolExecutor workers;
+    private final Semaphore idleWorkers;
+    private final int maxAttempts;
+    private final Duration retryBase;
+    private final Duration lease;
+
+    private final Counter done;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer duration;
+
+    public AttachmentProcessor(JdbcTemplate jdbcTemplate,
+                               StorageBackend storage,
+                               MeterRegistry meterRegistry,
+                               @Value("${attachments.processing.workers:2}") int workerCount,
+                               @Value("${attachments.processing.max-attempts:5}") int maxAttempts,
+                               @Value("${attachments.processing.retry-base:PT30S}") Duration retryBase,
+                               @Value("${attachments.processing.lease:PT5M}") Duration lease,
+                               @Value("${attachments.processing.thumbnail-size:256}") int thumbnailSize,
+                               @Value("${attachments.processing.pdf-dpi:36}") float pdfDpi) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.storage = storage;
+        this.previewGenerator = new PreviewGenerator(thumbnailSize, pdfDpi);
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("attachment-worker-", 0).daemon().factory());
+        this.idleWorkers = new Semaphore(workerCount);
+        this.maxAttempts = maxAttempts;
+        this.retryBase = retryBase;
+        this.lease = lease;
+
+        Gauge.builder("attachments.jobs.active", workers, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.done = meterRegistry.counter("attachments.jobs", "outcome", "done");
+        this.retried = meterRegistry.counter("attachments.jobs", "outcome", "retry");
+        this.failed = meterRegistry.counter("attachments.jobs", "outcome", "failed");
+        this.duration = meterRegistry.timer("attachments.jobs.duration");
+    }
+
+    @Scheduled(fixedDelayString = "${attachments.processing.poll-interval-ms:2000}")
+    public void poll() {
+        int idle = idleWorkers.availablePermits();
+        if (idle == 0) return;
+        int expired = jdbcTemplate.update(EXPIRE_SQL, maxAttempts);
+        if (expired > 0) {
+            log.warn("Gave up on {} attachment jobs whose lease expired on their last attempt", expired);
+            failed.increment(expired);
+        }
+        List<Job> jobs = jdbcTemplate.query(CLAIM_SQL,
+                (rs, i) -> new Job(rs.getLong("id"), rs.getString("blob_hash"), rs.getInt("attempts")),
+                Timestamp.from(Instant.now().plus(lease)), maxAttempts, idle);
+        for (Job job : jobs) {
+            idleWorkers.acquireUninterruptibly();
+            workers.execute(() -> {
+                try {
+                    duration.record(() -> run(job));
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        }
+    }
+
+    private void run(Job job) {
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT object_key, content_type FROM blobs WHERE hash = ?", job.blobHash());
+            if (rows.isEmpty()) {
+                finish(job); // blob was collected meanwhile
+                return;
+            }
+            String key = (String) rows.get(0).get("object_key");
+            String contentType = (String) rows.get(0).get("content_type");
+
+            PreviewGenerator.Preview preview = preview(key, contentType);
+            String thumbnailKey = null;
+            if (preview.thumbnail() != null) {
+                thumbnailKey = StorageKeys.thumbnailKey(job.blobHash());
+                storage.store(thumbnailKey, new ByteArrayInputStream(preview.thumbnail()), preview.thumbnail().length, "image/jpeg");
+            }
+            int updated = jdbcTemplate.update("UPDATE blobs SET width = ?, height = ?, page_count = ?, thumbnail_key = ? WHERE hash = ?",
+                    preview.width(), preview.height(), preview.pageCount(), thumbnailKey, job.blobHash());
+            if (updated == 0 && thumbnailKey != null) {
+                // Collected while we rendered: the collector never saw this thumbnail, so nothing else will delete it
+                deleteOrphan(thumbnailKey);
+            }
+            finish(job);
+        } catch (Exception ex) {
+            fail(job, ex);
+        }
+    }
+
+    private void deleteOrphan(String thumbnailKey) {
+        try {
+            storage.delete(thumbnailKey);
+        } catch (Exception ex) {
+            log.warn("Could not delete thumbnail {} of a collected blob: {}", thumbnailKey, ex.getMessage());
+        }
+    }
+
+    private PreviewGenerator.Preview preview(String key, String contentType) throws Exception {
+        if (PreviewGenerator.isPdf(contentType)) {
+            // PDFBox needs random access: spool to a temp file instead of memory
+            Path tmp = Files.createTempFile("attachment-", ".pdf");
+            try {
+                try (InputStream in = storage.open(key)) {
+                    Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                return previewGenerator.pdf(tmp);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        try (InputStream in = storage.open(key)) {
+            return previewGenerator.image(in);
+        }
+    }
+
+    private void finish(Job job) {
+        jdbcTemplate.update("UPDATE attachment_jobs SET status = 'DONE', locked_until = NULL, last_error = NULL, " +
+                "finished_at = now() WHERE id = ?", job.id());
+        done.increment();
+    }
+
+    private void fail(Job job, Exception ex) {
+        String error = ex.getClass().getSimpleName() + ": " + ex.getMessage();
+        if (job.attempts() >= maxAttempts) {
+            log.warn("Giving up on attachment job {} for blob {} after {} attempts: {}", job.id(), job.blobHash(), job.attempts(), error);
+            jdbcTemplate.update("UPDATE attachment_jobs SET status = 'FAILED', locked_until = NULL, last_error = ?, " +
+                    "finished_at = now() WHERE id = ?", error, job.id());
+            failed.increment();
+            return;
+        }
+        Duration backoff = retryBase.multipliedBy(1L << Math.min(job.attempts() - 1, 10));
+        jdbcTemplate.update("UPDATE attachment_jobs SET status = 'PENDING', locked_until = NULL, last_error = ?, " +
+                "next_attempt_at = ? WHERE id = ?", error, Timestamp.from(Instant.now().plus(backoff)), job.id());
+        retried.increment();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // Unfinished jobs keep their lease and are reclaimed after it expires
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
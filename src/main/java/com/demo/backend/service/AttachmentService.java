@@ -0,0 +1,163 @@
+package com.demo.backend.service;
+
+import com.demo.backend.dto.response.AttachmentDto;
+import com.demo.backend.storage.StorageBackend;
+import com.demo.backend.storage.StorageKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Content-addressed attachment storage. The upload is hashed in one streaming pass; when a blob
+ * with that SHA-256 already exists only an attachments row is added, otherwise the bytes are
+ * stored once under blobs/&lt;hash&gt;. Reference counts are maintained by database triggers.
+ */
+@Service
+public class AttachmentService {
+
+    private static final String ATTACH_EXISTING_SQL =
+            "INSERT INTO attachments (blob_hash, filename, content_type, uploaded_by, task_id, message_id) " +
+            "SELECT hash, ?::varchar, ?::varchar, ?::bigint, ?::bigint, ?::bigint FROM blobs WHERE hash = ? RETURNING id";
+
+    private static final String INSERT_BLOB_SQL =
+            "INSERT INTO blobs (hash, object_key, size, content_type) VALUES (?, ?, ?, ?) ON CONFLICT (hash) DO NOTHING";
+
+    private static final String ENQUEUE_PREVIEW_SQL =
+            "INSERT INTO attachment_jobs (blob_hash) VALUES (?) ON CONFLICT (blob_hash) DO NOTHING";
+
+    private static final String FIND_SQL =
+            "SELECT a.id, a.filename, a.content_type, a.uploaded_by, a.task_id, a.message_id, a.created_at, " +
+            "b.object_key, b.size, b.width, b.height, b.page_count, b.thumbnail_key " +
+            "FROM attachments a JOIN blobs b ON b.hash = a.blob_hash WHERE a.id = ?";
+
+    private static final String FIND_READERS_SQL =
+            "SELECT DISTINCT uploaded_by, task_id FROM attachments WHERE blob_hash = ?";
+
+    /** Who an attachment is visible to: its uploader and, when linked to a task, the task's participants. */
+    public record Audience(long uploadedBy, Long taskId) {}
+
+    public record StoredAttachment(long id, String hash, String key, long size, boolean deduplicated) {}
+
+    private final StorageBackend storage;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int hashBufferSize;
+    private final Counter deduplicated;
+    private final Counter stored;
+
+    public AttachmentService(StorageBackend storage,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${storage.local.chunk-size:65536}") int hashBufferSize) {
+        this.storage = storage;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.hashBufferSize = hashBufferSize;
+        this.deduplicated = meterRegistry.counter("attachments.uploads", "result", "deduplicated");
+        this.stored = meterRegistry.counter("attachments.uploads", "result", "stored");
+    }
+
+    /**
+     * Stores an attachment read from {@code source}, which must be readable twice (a spooled
+     * multipart file is): once to hash, and once more to store if the content is new.
+     */
+    public StoredAttachment store(InputStreamSource source, long size, String filename, String contentType,
+                                  Long uploadedBy, Long taskId, Long messageId) throws IOException {
+        String hash;
+        try (InputStream in = source.getInputStream()) {
+            hash = sha256(in);
+        }
+        String name = StorageKeys.sanitize(filename);
+        String key = StorageKeys.blobKey(hash);
+
+        Long existing = attachExisting(hash, name, contentType, uploadedBy, taskId, messageId);
+        if (existing != null) {
+            deduplicated.increment();
+            return new StoredAttachment(existing, hash, key, size, true);
+        }
+
+        try (InputStream in = source.getInputStream()) {
+            storage.store(key, in, size, contentType);
+        }
+        Long id = transactionTemplate.execute(status -> {
+            int inserted = jdbcTemplate.update(INSERT_BLOB_SQL, hash, key, size, contentType);
+            // New previewable content gets a thumbnail/metadata job in the same transaction
+            if (inserted > 0 && (PreviewGenerator.isImage(contentType) || PreviewGenerator.isPdf(contentType))) {
+                jdbcTemplate.update(ENQUEUE_PREVIEW_SQL, hash);
+            }
+            return attachExisting(hash, name, contentType, uploadedBy, taskId, messageId);
+        });
+        stored.increment();
+        return new StoredAttachment(id, hash, key, size, false);
+    }
+
+    public Optional<AttachmentDto> find(long attachmentId) {
+        List<AttachmentDto> rows = jdbcTemplate.query(FIND_SQL, (rs, i) -> {
+            String thumbnailKey = rs.getString("thumbnail_key");
+            return new AttachmentDto(
+                    rs.getLong("id"),
+                    rs.getString("filename"),
+                    rs.getString("content_type"),
+                    rs.getLong("size"),
+                    StorageKeys.downloadPath(rs.getString("object_key")),
+                    rs.getLong("uploaded_by"),
+                    rs.getObject("task_id", Long.class),
+                    rs.getObject("message_id", Long.class),
+                    rs.getObject("width", Integer.class),
+                    rs.getObject("height", Integer.class),
+                    rs.getObject("page_count", Integer.class),
+                    thumbnailKey == null ? null : StorageKeys.downloadPath(thumbnailKey),
+                    rs.getObject("created_at", OffsetDateTime.class));
+        }, attachmentId);
+        return rows.stream().findFirst();
+    }
+
+    /** One audience per distinct uploader and task among the attachments of a blob. */
+    public List<Audience> audiences(String hash) {
+        return jdbcTemplate.query(FIND_READERS_SQL,
+                (rs, i) -> new Audience(rs.getLong("uploaded_by"), rs.getObject("task_id", Long.class)), hash);
+    }
+
+    /** Removes the caller's attachment; the blob is collected once nothing references it. */
+    public boolean delete(long attachmentId, Long uploadedBy) {
+        return jdbcTemplate.update("DELETE FROM attachments WHERE id = ? AND uploaded_by = ?", attachmentId, uploadedBy) > 0;
+    }
+
+    // Inserts the attachment only if the blob row exists; the FK lock makes this safe against a concurrent GC
+    private Long attachExisting(String hash, String filename, String contentType, Long uploadedBy, Long taskId, Long messageId) {
+        try {
+            return jdbcTemplate.query(ATTACH_EXISTING_SQL, rs -> rs.next() ? rs.getLong(1) : null,
+                    filename, contentType, uploadedBy, taskId, messageId, hash);
+        } catch (DataIntegrityViolationException ex) {
+            return null; // blob was collected between the SELECT and the FK check
+        }
+    }
+
+    private String sha256(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+        byte[] buffer = new byte[hashBufferSize];
+        int read;
+        while ((read = in.read(buffer)) != -1) digest.update(buffer, 0, read);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,63 @@
+package com.demo.backend.service;
+
+import com.demo.backend.model.Bid;
+import com.demo.backend.repository.BidRepository;
+import com.demo.backend.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Accepts a bid as two conditional updates in one transaction: the task moves OPEN to
+ * IN_PROGRESS, then the bid PENDING to ACCEPTED, then the other pending bids are rejected.
+ * No rows are locked up front. Concurrent accepts on the same task queue only on that task's
+ * row inside the first UPDATE; the loser re-checks {@code status = 'OPEN'}, matches nothing and
+ * gets a conflict, while accepts on other tasks are not affected.
+ */
+@Service
+public class BidAcceptanceService {
+
+    public enum Outcome { ACCEPTED, BID_NOT_FOUND, FORBIDDEN, TASK_NOT_OPEN, BID_NOT_PENDING }
+
+    private final BidRepository bidRepository;
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter accepted;
+    private final Counter conflicts;
+
+    public BidAcceptanceService(BidRepository bidRepository, TaskRepository taskRepository,
+                                TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.bidRepository = bidRepository;
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.accepted = meterRegistry.counter("bids.acceptances", "outcome", "accepted");
+        this.conflicts = meterRegistry.counter("bids.acceptances", "outcome", "conflict");
+    }
+
+    public Outcome accept(long bidId, long clientId) {
+        Optional<Bid> bid = bidRepository.findByIdWithTaskAndCreator(bidId);
+        if (bid.isEmpty()) return Outcome.BID_NOT_FOUND;
+        if (!bid.get().getTask().getCreatedBy().getId().equals(clientId)) return Outcome.FORBIDDEN;
+        long taskId = bid.get().getTask().getId();
+
+        Outcome outcome = transactionTemplate.execute(status -> {
+            if (taskRepository.startIfOpen(taskId) == 0) {
+                return Outcome.TASK_NOT_OPEN;
+            }
+            if (bidRepository.acceptIfPending(bidId) == 0) {
+                // Withdrawn or rejected meanwhile: undo the task transition
+                status.setRollbackOnly();
+                return Outcome.BID_NOT_PENDING;
+            }
+            bidRepository.rejectOtherBids(taskId, bidId);
+            return Outcome.ACCEPTED;
+        });
+
+        if (outcome == Outcome.ACCEPTED) accepted.increment();
+        else conflicts.increment();
+        return outcome;
+    }
+}
@@ -0,0 +1,76 @@
+package com.demo.backend.service;
+
+import com.demo.backend.dto.response.BidDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+
+/**
+ * Places a bid in one statement: the task lookup, the OPEN check, the insert and the duplicate
+ * check all happen in a single INSERT ... ON CONFLICT DO NOTHING round-trip. Two concurrent bids
+ * from the same freelancer are serialized by the (task_id, freelancer_id) unique index, so the
+ * loser sees no inserted row instead of a constraint violation.
+ * <p>
+ * The task row is read FOR SHARE. The foreign key check alone only takes FOR KEY SHARE, which
+ * does not conflict with an acceptance moving the task out of OPEN; without the share lock a bid
+ * could commit as PENDING next to an accepted one that rejectOtherBids never saw. Concurrent
+ * bids share the lock, an acceptance waits for them, and a bid arriving during an acceptance
+ * waits and then reads the task's new status.
+ */
+@Service
+public class BidPlacementService {
+
+    // Always returns the task row when the task exists; bid columns are null when nothing was inserted
+    private static final String PLACE_SQL = """
+            WITH task AS (
+                SELECT id, title, status FROM tasks WHERE id = ? FOR SHARE
+            ), inserted AS (
+                INSERT INTO bids (task_id, freelancer_id, amount, status)
+                SELECT id, ?, ?, 'PENDING' FROM task WHERE status = 'OPEN'
+                ON CONFLICT (task_id, freelancer_id) DO NOTHING
+                RETURNING id, status
+            )
+            SELECT task.title, task.status AS task_status, inserted.id, inserted.status,
+                   (SELECT email FROM users WHERE id = ?) AS freelancer_email
+            FROM task LEFT JOIN inserted ON true
+            """;
+
+    public enum Outcome { PLACED, TASK_NOT_FOUND, TASK_NOT_OPEN, ALREADY_BID }
+
+    public record Placement(Outcome outcome, BidDto bid) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter placed;
+    private final Counter duplicates;
+
+    public BidPlacementService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.placed = meterRegistry.counter("bids.placements", "outcome", "placed");
+        this.duplicates = meterRegistry.counter("bids.placements", "outcome", "already_bid");
+    }
+
+    public Placement place(long taskId, long freelancerId, BigDecimal amount) {
+        Placement placement = jdbcTemplate.query(PLACE_SQL, rs -> {
+            if (!rs.next()) return new Placement(Outcome.TASK_NOT_FOUND, null);
+            long bidId = rs.getLong("id");
+            if (rs.wasNull()) {
+                return "OPEN".equals(rs.getString("task_status"))
+                        ? new Placement(Outcome.ALREADY_BID, null)
+                        : new Placement(Outcome.TASK_NOT_OPEN, null);
+            }
+            BidDto bid = new BidDto();
+            bid.setId(bidId);
+            bid.setTaskTitle(rs.getString("title"));
+            bid.setFreelancerEmail(rs.getString("freelancer_email"));
+            bid.setStatus(rs.getString("status"));
+            return new Placement(Outcome.PLACED, bid);
+        }, taskId, freelancerId, amount, freelancerId);
+
+        if (placement.outcome() == Outcome.PLACED) placed.increment();
+        else if (placement.outcome() == Outcome.ALREADY_BID) duplicates.increment();
+        return placement;
+    }
+}
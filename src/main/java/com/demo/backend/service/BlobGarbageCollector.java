@@ -0,0 +1,73 @@
+package com.demo.backend.service;
+
+import com.demo.backend.storage.StorageBackend;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Deletes blobs nobody has referenced for the grace period. The rows are deleted and the objects
+ * removed from storage in one transaction, committed only after the storage deletes. Until then
+ * the deleted rows stay locked: a racing upload of the same content blocks on its foreign key
+ * check, fails once the delete commits and then stores the bytes again, after they were removed.
+ * Deleting the objects after the commit would let that upload store them first and then lose them.
+ */
+@Slf4j
+@Component
+public class BlobGarbageCollector {
+
+    private static final String DELETE_UNREFERENCED_SQL =
+            "DELETE FROM blobs WHERE hash IN (" +
+            " SELECT hash FROM blobs WHERE ref_count = 0 AND unreferenced_since < ?" +
+            " ORDER BY unreferenced_since LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING object_key, thumbnail_key";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StorageBackend storage;
+    private final Duration grace;
+    private final int batchSize;
+
+    public BlobGarbageCollector(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                StorageBackend storage,
+                                @Value("${attachments.gc.grace:PT1H}") Duration grace,
+                                @Value("${attachments.gc.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.storage = storage;
+        this.grace = grace;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${attachments.gc.interval-ms:3600000}")
+    public void collect() {
+        Integer collected = transactionTemplate.execute(status -> {
+            List<List<String>> rows = jdbcTemplate.query(DELETE_UNREFERENCED_SQL,
+                    (rs, i) -> Stream.of(rs.getString("object_key"), rs.getString("thumbnail_key")).filter(Objects::nonNull).toList(),
+                    Timestamp.from(Instant.now().minus(grace)), batchSize);
+            for (List<String> keys : rows) {
+                for (String key : keys) {
+                    try {
+                        storage.delete(key);
+                    } catch (Exception ex) {
+                        // The row still goes; an orphaned object is harmless and is overwritten by a re-upload
+                        log.warn("Could not delete unreferenced object {}: {}", key, ex.getMessage());
+                    }
+                }
+            }
+            return rows.size();
+        });
+        if (collected != null && collected > 0) log.info("Collected {} unreferenced blobs", collected);
+    }
+}
@@ -0,0 +1,16 @@
+package com.demo.backend.service;
+
+import java.util.Map;
+
+/**
+ * Delivers a chat payload to every subscriber of a task room. The default implementation only
+ * reaches sessions on this instance; chat.fanout=postgres relays through LISTEN/NOTIFY so
+ * subscribers connected to other instances receive it too.
+ */
+public interface ChatFanout {
+    void publish(Long taskId, Map<String, Object> payload);
+
+    static String destination(Long taskId) {
+        return "/topic/tasks/" + taskId + "/receiveMessage";
+    }
+}
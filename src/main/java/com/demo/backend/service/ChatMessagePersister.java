@@ -0,0 +1,11 @@
+package com.demo.backend.service;
+
+import com.demo.backend.dto.response.MessageDto;
+
+/**
+ * Persists chat messages and assigns their ids. The default implementation inserts
+ * synchronously; chat.write-behind.enabled=true switches to batched write-behind.
+ */
+public interface ChatMessagePersister {
+    MessageDto persist(Long taskId, Long senderId, String senderUsername, String content);
+}
@@ -0,0 +1,74 @@
+package com.demo.backend.service;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Minimal circuit breaker. After {@code failureThreshold} consecutive failures it opens and
+ * refuses calls for {@code openDuration}; then one trial call is let through (half-open),
+ * whose outcome closes the circuit again or re-opens it.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /** Returns false if the call must not be made; a true result must be followed by onSuccess/onFailure/release. */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.millis() - openedAt >= openDuration.toMillis()) {
+            state = State.HALF_OPEN;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) yield false;
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.millis();
+        }
+    }
+
+    /** The acquired call ended with an outcome that says nothing about the provider's health. */
+    public synchronized void release() {
+        trialInFlight = false;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized long retryAfterSeconds() {
+        long remaining = openDuration.toMillis() - (clock.millis() - openedAt);
+        return Math.max(1, (remaining + 999) / 1000);
+    }
+}
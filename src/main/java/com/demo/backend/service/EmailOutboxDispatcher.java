@@ -0,0 +1,154 @@
+package com.demo.backend.service;
+
+import com.demo.backend.model.EmailOutbox;
+import com.demo.backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final String fromEmail;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 JavaMailSender mailSender,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${spring.mail.username}") String fromEmail,
+                                 @Value("${email.outbox.batch-size:50}") int batchSize,
+                                 @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${email.outbox.initial-backoff:PT10S}") Duration initialBackoff,
+                                 @Value("${email.outbox.max-backoff:PT1H}") Duration maxBackoff,
+                                 @Value("${email.outbox.lease:PT5M}") Duration lease) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.fromEmail = fromEmail;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+
+        this.sent = meterRegistry.counter("email.outbox.dispatched", "outcome", "sent");
+        this.retried = meterRegistry.counter("email.outbox.dispatched", "outcome", "retry");
+        this.failed = meterRegistry.counter("email.outbox.dispatched", "outcome", "failed");
+        this.batchTimer = meterRegistry.timer("email.outbox.batch.duration");
+        for (String status : List.of("PENDING", "FAILED")) {
+            Gauge.builder("email.outbox.messages", emailOutboxRepository, repo -> repo.countByStatus(status))
+                    .tag("status", status)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Claims due entries with a lease in one short transaction, sends them with no transaction
+     * open, and stores the outcomes in a second one. An entry whose dispatcher died mid-batch is
+     * picked up again once its lease expires, so delivery is at least once.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:1000}")
+    public void dispatchDue() {
+        // Keep draining while batches come back full
+        List<EmailOutbox> batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<EmailOutbox> claimed = emailOutboxRepository.claimDue(batchSize);
+                OffsetDateTime lockedUntil = OffsetDateTime.now().plus(lease);
+                claimed.forEach(entry -> entry.setLockedUntil(lockedUntil));
+                return claimed;
+            });
+            if (batch == null || batch.isEmpty()) return;
+            List<EmailOutbox> delivered = batch;
+            batchTimer.record(() -> deliver(delivered));
+            transactionTemplate.executeWithoutResult(status -> emailOutboxRepository.saveAll(delivered));
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Sends the batch over a single SMTP connection and records the outcome on each entry.
+     * Failed entries are rescheduled with exponential backoff until maxAttempts is reached.
+     */
+    void deliver(List<EmailOutbox> batch) {
+        SimpleMailMessage[] messages = batch.stream().map(this::toMessage).toArray(SimpleMailMessage[]::new);
+        Map<Object, Exception> failures = Map.of();
+        MailException batchError = null;
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException ex) {
+            failures = ex.getFailedMessages();
+            batchError = ex;
+        } catch (MailException ex) {
+            batchError = ex;
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox entry = batch.get(i);
+            entry.setLockedUntil(null);
+            Exception error = failures.isEmpty() ? batchError : failures.get(messages[i]);
+            if (error == null) {
+                entry.setStatus("SENT");
+                entry.setSentAt(now);
+                entry.setLastError(null);
+                sent.increment();
+            } else {
+                scheduleRetry(entry, error, now);
+            }
+        }
+    }
+
+    private void scheduleRetry(EmailOutbox entry, Exception error, OffsetDateTime now) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(error.getMessage());
+        if (attempts >= maxAttempts) {
+            entry.setStatus("FAILED");
+            failed.increment();
+            log.warn("Giving up on email {} to {} after {} attempts: {}", entry.getId(), entry.getRecipient(), attempts, error.getMessage());
+            return;
+        }
+        long factor = 1L << Math.min(attempts - 1, 20);
+        Duration backoff = initialBackoff.multipliedBy(factor);
+        entry.setNextAttemptAt(now.plus(backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff));
+        retried.increment();
+    }
+
+    private SimpleMailMessage toMessage(EmailOutbox entry) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(entry.getRecipient());
+        message.setSubject(entry.getSubject());
+        message.setText(entry.getBody());
+        return message;
+    }
+}
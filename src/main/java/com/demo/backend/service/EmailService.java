@@ -1,19 +1,22 @@
 package com.demo.backend.service;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import com.demo.backend.model.EmailOutbox;
+import com.demo.backend.repository.EmailOutboxRepository;
 import org.springframework.stereotype.Service;
 
+import java.time.OffsetDateTime;
+
+/**
+ * Queues outgoing emails in the email_outbox table. Callers' transactions include the outbox
+ * row, and {@link EmailOutboxDispatcher} delivers it asynchronously.
+ */
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final EmailOutboxRepository emailOutboxRepository;
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(EmailOutboxRepository emailOutboxRepository) {
+        this.emailOutboxRepository = emailOutboxRepository;
     }
 
 
@@ -36,17 +39,13 @@ public class EmailService {
     }
 
     private void sendEmail(String to, String subject, String body) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            mailSender.send(message);
-        } catch (Exception e) {
-            // In a production environment, you should use a logging framework
-            System.err.println("Error sending email: " + e.getMessage());
-            // Consider throwing a custom exception or using a queue for retries
-        }
+        emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .status("PENDING")
+                .attempts(0)
+                .nextAttemptAt(OffsetDateTime.now())
+                .build());
     }
-}
\ No newline at end of file
+}
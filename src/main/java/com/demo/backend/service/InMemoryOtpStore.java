@@ -0,0 +1,152 @@
+package com.demo.backend.service;
+
+import com.demo.backend.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-local OTP store. Codes are kept as HMACs under a per-process key, verification is a
+ * single map lookup, and expired entries are swept by a hashed timer wheel instead of scanning
+ * the whole map. Codes do not survive a restart and are not shared between instances; use the
+ * jpa store when that matters.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final int WHEEL_SIZE = 512;
+
+    private record Entry(long userId, byte[] hash, long expiresAtMillis, AtomicInteger attempts) {}
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final ConcurrentLinkedQueue<Entry>[] wheel = new ConcurrentLinkedQueue[WHEEL_SIZE];
+    private final SecretKeySpec hmacKey;
+    private final ThreadLocal<Mac> mac;
+    private final long tickMs;
+    private final int maxAttempts;
+    private long lastSweptTick;
+
+    private final Counter expired;
+    private final Counter valid;
+    private final Counter invalid;
+    private final Counter locked;
+
+    public InMemoryOtpStore(MeterRegistry meterRegistry,
+                            @Value("${otp.memory.tick-ms:1000}") long tickMs,
+                            @Value("${otp.memory.max-attempts:5}") int maxAttempts) {
+        this.tickMs = tickMs;
+        this.maxAttempts = maxAttempts;
+        for (int i = 0; i < WHEEL_SIZE; i++) wheel[i] = new ConcurrentLinkedQueue<>();
+        this.lastSweptTick = System.currentTimeMillis() / tickMs;
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hmacKey = new SecretKeySpec(key, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac m = Mac.getInstance("HmacSHA256");
+                m.init(hmacKey);
+                return m;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("HmacSHA256 not available", ex);
+            }
+        });
+
+        Gauge.builder("otp.store.size", entries, ConcurrentHashMap::size).register(meterRegistry);
+        this.expired = meterRegistry.counter("otp.store.expired");
+        this.valid = meterRegistry.counter("otp.verifications", "result", "valid");
+        this.invalid = meterRegistry.counter("otp.verifications", "result", "invalid");
+        this.locked = meterRegistry.counter("otp.verifications", "result", "locked");
+    }
+
+    @Override
+    public void save(User user, String otp, Duration ttl) {
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        Entry entry = new Entry(user.getId(), hash(user.getId(), otp), expiresAt, new AtomicInteger());
+        entries.put(user.getId(), entry);
+        wheel[slot(Math.ceilDiv(expiresAt, tickMs))].add(entry);
+    }
+
+    @Override
+    public boolean validate(User user, String otp) {
+        Entry entry = entries.get(user.getId());
+        if (entry == null) {
+            invalid.increment();
+            return false;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            if (entries.remove(entry.userId(), entry)) expired.increment();
+            invalid.increment();
+            return false;
+        }
+        // Too many wrong guesses burn the code
+        if (entry.attempts().incrementAndGet() > maxAttempts) {
+            entries.remove(entry.userId(), entry);
+            locked.increment();
+            return false;
+        }
+        boolean matches = MessageDigest.isEqual(entry.hash(), hash(entry.userId(), otp));
+        (matches ? valid : invalid).increment();
+        return matches;
+    }
+
+    @Override
+    public void clear(User user) {
+        entries.remove(user.getId());
+    }
+
+    /**
+     * Advances the wheel to the current tick and drops entries that are due. Entries that landed
+     * in a slot for a later rotation, or were replaced or cleared meanwhile, are skipped.
+     */
+    @Scheduled(fixedRateString = "${otp.memory.tick-ms:1000}")
+    public synchronized void sweep() {
+        long now = System.currentTimeMillis();
+        long nowTick = now / tickMs;
+        long from = Math.max(lastSweptTick + 1, nowTick - WHEEL_SIZE + 1);
+        for (long tick = from; tick <= nowTick; tick++) {
+            ConcurrentLinkedQueue<Entry> bucket = wheel[slot(tick)];
+            List<Entry> notYetDue = new ArrayList<>();
+            Entry entry;
+            while ((entry = bucket.poll()) != null) {
+                if (entry.expiresAtMillis() > now) {
+                    notYetDue.add(entry);
+                } else if (entries.remove(entry.userId(), entry)) {
+                    expired.increment();
+                }
+            }
+            bucket.addAll(notYetDue);
+        }
+        lastSweptTick = nowTick;
+    }
+
+    private static int slot(long tick) {
+        return (int) (tick % WHEEL_SIZE);
+    }
+
+    private byte[] hash(long userId, String otp) {
+        Mac m = mac.get();
+        m.update(ByteBuffer.allocate(Long.BYTES).putLong(userId).array());
+        return m.doFinal(otp.getBytes(StandardCharsets.UTF_8));
+    }
+}
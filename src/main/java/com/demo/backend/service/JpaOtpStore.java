@@ -0,0 +1,64 @@
+package com.demo.backend.service;
+
+import com.demo.backend.model.OtpToken;
+import com.demo.backend.model.User;
+import com.demo.backend.repository.OtpTokenRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "jpa")
+public class JpaOtpStore implements OtpStore {
+
+    private final OtpTokenRepository otpTokenRepository;
+
+    public JpaOtpStore(OtpTokenRepository otpTokenRepository) {
+        this.otpTokenRepository = otpTokenRepository;
+    }
+
+    @Override
+    @Transactional
+    public void save(User user, String otp, Duration ttl) {
+        // Invalidate any existing OTP for this user
+        otpTokenRepository.findByUser(user).ifPresent(otpTokenRepository::delete);
+        otpTokenRepository.save(new OtpToken(user, otp, (int) ttl.toMinutes()));
+    }
+
+    @Override
+    public boolean validate(User user, String otp) {
+        Optional<OtpToken> otpTokenOptional = otpTokenRepository.findByUser(user);
+        if (otpTokenOptional.isEmpty()) {
+            return false; // No OTP found for this user
+        }
+
+        OtpToken otpToken = otpTokenOptional.get();
+
+        // Check for expiry
+        if (otpToken.getExpiryDate().isBefore(OffsetDateTime.now())) {
+            otpTokenRepository.delete(otpToken); // Clean up expired token
+            return false;
+        }
+
+        // Check if the token matches
+        return otpToken.getToken().equals(otp);
+    }
+
+    @Override
+    @Transactional
+    public void clear(User user) {
+        otpTokenRepository.findByUser(user).ifPresent(otpTokenRepository::delete);
+    }
+
+    // Expired rows used to stay until the user touched them again
+    @Scheduled(fixedDelayString = "${otp.jpa.purge-interval-ms:60000}")
+    @Transactional
+    public void purgeExpired() {
+        otpTokenRepository.deleteExpired(OffsetDateTime.now());
+    }
+}
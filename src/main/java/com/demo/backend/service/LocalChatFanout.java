@@ -0,0 +1,23 @@
+package com.demo.backend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "chat.fanout", havingValue = "local", matchIfMissing = true)
+public class LocalChatFanout implements ChatFanout {
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    public LocalChatFanout(SimpMessageSendingOperations messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @Override
+    public void publish(Long taskId, Map<String, Object> payload) {
+        messagingTemplate.convertAndSend(ChatFanout.destination(taskId), payload);
+    }
+}
@@ -1,36 +1,29 @@
 package com.demo.backend.service;
 
-import com.demo.backend.model.OtpToken;
 import com.demo.backend.model.User;
-import com.demo.backend.repository.OtpTokenRepository;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.time.OffsetDateTime;
-import java.util.Optional;
+import java.time.Duration;
 
 @Service
 public class OtpService {
 
-    private final OtpTokenRepository otpTokenRepository;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final OtpStore otpStore;
 
     @Value("${otp.expiration-minutes:10}")
     private int expirationMinutes;
 
-    public OtpService(OtpTokenRepository otpTokenRepository) {
-        this.otpTokenRepository = otpTokenRepository;
+    public OtpService(OtpStore otpStore) {
+        this.otpStore = otpStore;
     }
 
-    @Transactional
     public String generateAndSaveOtp(User user) {
-        // Invalidate any existing OTP for this user
-        otpTokenRepository.findByUser(user).ifPresent(otpTokenRepository::delete);
-
         String otp = generateRandomOtp();
-        OtpToken otpToken = new OtpToken(user, otp, expirationMinutes);
-        otpTokenRepository.save(otpToken);
+        otpStore.save(user, otp, Duration.ofMinutes(expirationMinutes));
         return otp;
     }
 
@@ -39,34 +32,18 @@ public class OtpService {
      * Returns true if valid, false otherwise.
      */
     public boolean validateOtp(User user, String otp) {
-        Optional<OtpToken> otpTokenOptional = otpTokenRepository.findByUser(user);
-        if (otpTokenOptional.isEmpty()) {
-            return false; // No OTP found for this user
-        }
-
-        OtpToken otpToken = otpTokenOptional.get();
-
-        // Check for expiry
-        if (otpToken.getExpiryDate().isBefore(OffsetDateTime.now())) {
-            otpTokenRepository.delete(otpToken); // Clean up expired token
-            return false;
-        }
-
-        // Check if the token matches
-        return otpToken.getToken().equals(otp);
+        return otpStore.validate(user, otp);
     }
 
     /**
      * Deletes the OTP for a given user after successful validation.
      */
-    @Transactional
     public void clearOtp(User user) {
-        otpTokenRepository.findByUser(user).ifPresent(otpTokenRepository::delete);
+        otpStore.clear(user);
     }
 
     private String generateRandomOtp() {
-        SecureRandom random = new SecureRandom();
-        int otp = 100000 + random.nextInt(900000); // Generates a number between 100000 and 999999
+        int otp = 100000 + RANDOM.nextInt(900000); // Generates a number between 100000 and 999999
         return String.valueOf(otp);
     }
 }
@@ -0,0 +1,20 @@
+package com.demo.backend.service;
+
+import com.demo.backend.model.User;
+
+import java.time.Duration;
+
+/**
+ * Storage for one-time passwords, one active code per user. Selected with the otp.store
+ * property: "memory" (default) or "jpa" for the durable otp_tokens table.
+ */
+public interface OtpStore {
+
+    /** Stores the code for the user, replacing any previous one. */
+    void save(User user, String otp, Duration ttl);
+
+    /** Returns true if the code matches the user's active, unexpired code. */
+    boolean validate(User user, String otp);
+
+    void clear(User user);
+}
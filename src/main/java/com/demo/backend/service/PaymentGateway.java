@@ -0,0 +1,149 @@
+package com.demo.backend.service;
+
+import com.demo.backend.exceptions.PaymentProviderUnavailableException;
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * All calls to Stripe go through here. They run on virtual threads off the request pool, behind
+ * a concurrency limit (bulkhead), an overall per-call deadline and a circuit breaker, so a slow
+ * or failing provider produces fast 503s instead of tying up Tomcat threads.
+ */
+@Service
+public class PaymentGateway implements DisposableBean {
+
+    private final StripeClient stripeClient;
+    private final boolean configured;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration callTimeout;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("stripe-call-", 0).factory());
+
+    private final Timer calls;
+    private final Counter rejectedBusy;
+    private final Counter rejectedOpen;
+    private final Counter timeouts;
+
+    public PaymentGateway(StripeClient stripeClient,
+                          MeterRegistry meterRegistry,
+                          @Value("${stripe.secret-key:}") String secretKey,
+                          @Value("${stripe.client.max-concurrent-calls:50}") int maxConcurrentCalls,
+                          @Value("${stripe.client.call-timeout:PT10S}") Duration callTimeout,
+                          @Value("${stripe.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                          @Value("${stripe.circuit-breaker.open-duration:PT30S}") Duration openDuration) {
+        this.stripeClient = stripeClient;
+        this.configured = secretKey != null && !secretKey.isBlank();
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration, Clock.systemUTC());
+        this.callTimeout = callTimeout;
+
+        this.calls = meterRegistry.timer("stripe.calls");
+        this.rejectedBusy = meterRegistry.counter("stripe.calls.rejected", "reason", "bulkhead");
+        this.rejectedOpen = meterRegistry.counter("stripe.calls.rejected", "reason", "circuit_open");
+        this.timeouts = meterRegistry.counter("stripe.calls.timeouts");
+        Gauge.builder("stripe.calls.in_flight", bulkhead, b -> maxConcurrentCalls - b.availablePermits()).register(meterRegistry);
+        Gauge.builder("stripe.circuit.open", circuitBreaker, cb -> cb.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+    }
+
+    public boolean isConfigured() {
+        return configured;
+    }
+
+    /**
+     * Creates the intent under {@code idempotencyKey}. A call that timed out here may still have
+     * reached Stripe; retrying with the same key returns that intent instead of creating another.
+     */
+    public CompletableFuture<PaymentIntent> createPaymentIntent(PaymentIntentCreateParams params, String idempotencyKey) {
+        RequestOptions options = RequestOptions.builder().setIdempotencyKey(idempotencyKey).build();
+        return call(() -> stripeClient.paymentIntents().create(params, options));
+    }
+
+    CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @FunctionalInterface
+    interface StripeCall<T> {
+        T execute() throws StripeException;
+    }
+
+    <T> CompletableFuture<T> call(StripeCall<T> stripeCall) {
+        if (!bulkhead.tryAcquire()) {
+            rejectedBusy.increment();
+            return CompletableFuture.failedFuture(new PaymentProviderUnavailableException("Payment provider is busy", 1));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            rejectedOpen.increment();
+            return CompletableFuture.failedFuture(new PaymentProviderUnavailableException(
+                    "Payment provider is unavailable", circuitBreaker.retryAfterSeconds()));
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stripeCall.execute();
+            } catch (StripeException ex) {
+                throw new CompletionException(ex);
+            } finally {
+                // Held until the HTTP call really ends, so the bulkhead bounds actual connections
+                bulkhead.release();
+            }
+        }, executor);
+
+        return result.orTimeout(callTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((value, error) -> {
+                    calls.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause == null) {
+                        circuitBreaker.onSuccess();
+                        return value;
+                    }
+                    if (cause instanceof TimeoutException) {
+                        timeouts.increment();
+                        circuitBreaker.onFailure();
+                        throw new PaymentProviderUnavailableException("Payment provider timed out", 1);
+                    }
+                    // e.g. card declined: says nothing about Stripe's health, so neither closes nor trips the breaker
+                    if (isProviderFailure(cause)) circuitBreaker.onFailure();
+                    else circuitBreaker.release();
+                    throw new CompletionException(cause);
+                });
+    }
+
+    // Only errors that say Stripe is unhealthy trip the breaker
+    private static boolean isProviderFailure(Throwable error) {
+        if (error instanceof ApiConnectionException || error instanceof RateLimitException) return true;
+        if (error instanceof ApiException api) return api.getStatusCode() == null || api.getStatusCode() >= 500;
+        return error instanceof StripeException stripe && stripe.getStatusCode() != null && stripe.getStatusCode() >= 500;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,203 @@
+package com.demo.backend.service;
+
+import com.demo.backend.dto.response.MessageDto;
+import com.demo.backend.repository.MessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cross-instance fan-out over Postgres LISTEN/NOTIFY. A published message is delivered to local
+ * subscribers directly and sent as a NOTIFY tagged with this node's id; every other node relays
+ * it to its own subscribers. Payloads too large for NOTIFY (8000 bytes) are sent as a message id
+ * and re-read from the messages table by the receiving nodes.
+ * <p>
+ * The listener holds its own connection outside the pool, because LISTEN is tied to a session.
+ * Notifications sent while it is reconnecting are lost; clients catch up via the history endpoint.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.fanout", havingValue = "postgres")
+public class PostgresChatFanout implements ChatFanout, SmartLifecycle {
+
+    // NOTIFY rejects payloads of 8000 bytes or more; leave room for the envelope
+    static final int MAX_NOTIFY_BYTES = 7900;
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageRepository messageRepository;
+    private final ObjectMapper objectMapper;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private final long pollTimeoutMs;
+    private final long reconnectDelayMs;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Counter published;
+    private final Counter referenced;
+    private final Counter relayed;
+    private final Counter reconnects;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresChatFanout(SimpMessageSendingOperations messagingTemplate,
+                              JdbcTemplate jdbcTemplate,
+                              MessageRepository messageRepository,
+                              ObjectMapper objectMapper,
+                              DataSourceProperties dataSourceProperties,
+                              MeterRegistry meterRegistry,
+                              @Value("${chat.postgres-fanout.channel:chat_fanout}") String channel,
+                              @Value("${chat.postgres-fanout.poll-timeout-ms:500}") long pollTimeoutMs,
+                              @Value("${chat.postgres-fanout.reconnect-delay-ms:2000}") long reconnectDelayMs) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid NOTIFY channel name: " + channel);
+        }
+        this.messagingTemplate = messagingTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.messageRepository = messageRepository;
+        this.objectMapper = objectMapper;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+
+        this.published = meterRegistry.counter("chat.fanout.published", "mode", "inline");
+        this.referenced = meterRegistry.counter("chat.fanout.published", "mode", "reference");
+        this.relayed = meterRegistry.counter("chat.fanout.relayed");
+        this.reconnects = meterRegistry.counter("chat.fanout.reconnects");
+    }
+
+    @Override
+    public void publish(Long taskId, Map<String, Object> payload) {
+        messagingTemplate.convertAndSend(ChatFanout.destination(taskId), payload);
+
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("node", nodeId);
+        envelope.put("taskId", taskId);
+        envelope.put("payload", payload);
+        String json = toJson(envelope);
+        if (json.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_BYTES) {
+            envelope.remove("payload");
+            envelope.put("messageId", payload.get("id"));
+            json = toJson(envelope);
+            referenced.increment();
+        } else {
+            published.increment();
+        }
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, json);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize chat payload", ex);
+        }
+    }
+
+    private void runListener() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications((int) pollTimeoutMs);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        relay(notification.getParameter());
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) return;
+                reconnects.increment();
+                log.warn("Chat fan-out listener lost its connection, reconnecting in {} ms: {}", reconnectDelayMs, ex.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void relay(String json) {
+        try {
+            JsonNode envelope = objectMapper.readTree(json);
+            if (nodeId.equals(envelope.path("node").asText())) return;
+            long taskId = envelope.path("taskId").asLong();
+
+            Object payload;
+            if (envelope.has("payload")) {
+                payload = objectMapper.treeToValue(envelope.get("payload"), Map.class);
+            } else {
+                Optional<MessageDto> message = messageRepository.findDtoById(envelope.path("messageId").asLong());
+                if (message.isEmpty()) {
+                    // With write-behind the row may not be flushed yet; the client will see it in history
+                    log.debug("Referenced chat message {} not found, skipping relay", envelope.path("messageId").asLong());
+                    return;
+                }
+                payload = Map.of(
+                        "id", message.get().getId(),
+                        "taskId", taskId,
+                        "sender", message.get().getSender(),
+                        "content", message.get().getContent());
+            }
+            messagingTemplate.convertAndSend(ChatFanout.destination(taskId), payload);
+            relayed.increment();
+        } catch (JsonProcessingException | RuntimeException ex) {
+            log.warn("Dropping malformed chat fan-out notification: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = new Thread(this::runListener, "chat-fanout-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        listener.interrupt();
+        try {
+            listener.join(pollTimeoutMs * 2);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
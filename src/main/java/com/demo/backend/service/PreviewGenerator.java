@@ -0,0 +1,108 @@
+package com.demo.backend.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Builds JPEG thumbnails and basic metadata for images and PDFs. Images are decoded with source
+ * subsampling, so memory depends on the thumbnail size rather than the original's resolution.
+ * PDF pages are rendered at a resolution lowered to fit the page size for the same reason.
+ */
+public class PreviewGenerator {
+
+    public record Preview(Integer width, Integer height, Integer pageCount, byte[] thumbnail) {}
+
+    private final int maxThumbnailSize;
+    private final float pdfDpi;
+
+    public PreviewGenerator(int maxThumbnailSize, float pdfDpi) {
+        this.maxThumbnailSize = maxThumbnailSize;
+        this.pdfDpi = pdfDpi;
+    }
+
+    public static boolean isImage(String contentType) {
+        return contentType != null && contentType.startsWith("image/");
+    }
+
+    public static boolean isPdf(String contentType) {
+        return "application/pdf".equals(contentType);
+    }
+
+    public Preview image(InputStream content) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) throw new IOException("Unsupported image format");
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Decode at roughly twice the thumbnail size, then scale down smoothly
+                int step = Math.max(1, Math.max(width, height) / (maxThumbnailSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return new Preview(width, height, null, thumbnail(reader.read(0, param)));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public Preview pdf(Path file) throws IOException {
+        // Temp-file stream cache keeps large documents off the heap
+        try (PDDocument document = Loader.loadPDF(file.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            int pages = document.getNumberOfPages();
+            if (pages == 0) return new Preview(null, null, 0, null);
+            PDRectangle box = document.getPage(0).getMediaBox();
+            BufferedImage firstPage = new PDFRenderer(document).renderImageWithDPI(0, dpiFor(box), ImageType.RGB);
+            return new Preview(Math.round(box.getWidth()), Math.round(box.getHeight()), pages, thumbnail(firstPage));
+        }
+    }
+
+    // The box is in points (1/72 inch); render at most twice the thumbnail size, like image()
+    // decodes, so a page declared hundreds of inches wide cannot allocate a giant bitmap
+    float dpiFor(PDRectangle box) {
+        float longest = Math.max(Math.abs(box.getWidth()), Math.abs(box.getHeight()));
+        if (!(longest > 0)) return pdfDpi;
+        return Math.min(pdfDpi, 72f * maxThumbnailSize * 2 / longest);
+    }
+
+    private byte[] thumbnail(BufferedImage source) throws IOException {
+        double scale = Math.min(1.0, (double) maxThumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+        int w = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int h = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE); // JPEG has no alpha
+            g.fillRect(0, 0, w, h);
+            g.drawImage(source, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(target, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,215 @@
+package com.demo.backend.service;
+
+import com.demo.backend.model.Payment;
+import com.demo.backend.model.StripeEvent;
+import com.demo.backend.repository.PaymentRepository;
+import com.demo.backend.repository.StripeEventRepository;
+import com.demo.backend.repository.TaskRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies inbox events to payments. Each PaymentIntent hashes to one single-threaded partition,
+ * so its events are applied one at a time and in Stripe's creation order; a transaction-scoped
+ * advisory lock extends that guarantee across instances. A failing event is retried with
+ * backoff and holds back later events of the same PaymentIntent until it succeeds or gives up.
+ */
+@Slf4j
+@Component
+public class StripeEventProcessor implements DisposableBean {
+
+    private final StripeEventRepository stripeEventRepository;
+    private final PaymentRepository paymentRepository;
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService[] partitions;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBase;
+
+    private final Counter applied;
+    private final Counter retried;
+    private final Counter failed;
+
+    public StripeEventProcessor(StripeEventRepository stripeEventRepository,
+                                PaymentRepository paymentRepository,
+                                TaskRepository taskRepository,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${stripe.events.partitions:4}") int partitionCount,
+                                @Value("${stripe.events.batch-size:100}") int batchSize,
+                                @Value("${stripe.events.max-attempts:8}") int maxAttempts,
+                                @Value("${stripe.events.retry-base:PT10S}") Duration retryBase) {
+        this.stripeEventRepository = stripeEventRepository;
+        this.paymentRepository = paymentRepository;
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.partitions = new ExecutorService[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("stripe-events-" + i).daemon().factory());
+        }
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBase = retryBase;
+
+        this.applied = meterRegistry.counter("stripe.events.processed", "outcome", "applied");
+        this.retried = meterRegistry.counter("stripe.events.processed", "outcome", "retry");
+        this.failed = meterRegistry.counter("stripe.events.processed", "outcome", "failed");
+        Gauge.builder("stripe.events.pending", stripeEventRepository, repo -> repo.countByStatus("PENDING")).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.events.poll-interval-ms:500}")
+    public void dispatch() {
+        for (String paymentIntentId : stripeEventRepository.findPaymentIntentsWithDueEvents(batchSize)) {
+            // Skip intents already queued here; the partition drains all their due events in one go
+            if (!inFlight.add(paymentIntentId)) continue;
+            partitions[Math.floorMod(paymentIntentId.hashCode(), partitions.length)].execute(() -> {
+                try {
+                    process(paymentIntentId);
+                } finally {
+                    inFlight.remove(paymentIntentId);
+                }
+            });
+        }
+    }
+
+    void process(String paymentIntentId) {
+        String[] current = new String[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!stripeEventRepository.tryLockPaymentIntent(paymentIntentId)) return; // another instance has it
+                OffsetDateTime now = OffsetDateTime.now();
+                for (StripeEvent event : stripeEventRepository.findPendingForPaymentIntent(paymentIntentId)) {
+                    if (event.getNextAttemptAt().isAfter(now)) break; // keep order behind a backing-off event
+                    current[0] = event.getId();
+                    apply(event);
+                    event.setStatus("PROCESSED");
+                    event.setProcessedAt(now);
+                    event.setLastError(null);
+                    applied.increment();
+                }
+            });
+        } catch (RuntimeException ex) {
+            if (current[0] != null) recordFailure(current[0], ex);
+            else log.warn("Processing Stripe events for {} failed: {}", paymentIntentId, ex.getMessage());
+        }
+    }
+
+    private void recordFailure(String eventId, RuntimeException error) {
+        transactionTemplate.executeWithoutResult(status -> stripeEventRepository.findById(eventId).ifPresent(event -> {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(error.getClass().getSimpleName() + ": " + error.getMessage());
+            if (event.getAttempts() >= maxAttempts) {
+                event.setStatus("FAILED");
+                failed.increment();
+                log.error("Giving up on Stripe event {} after {} attempts: {}", eventId, event.getAttempts(), error.getMessage());
+            } else {
+                event.setNextAttemptAt(OffsetDateTime.now().plus(retryBase.multipliedBy(1L << Math.min(event.getAttempts() - 1, 10))));
+                retried.increment();
+            }
+        }));
+    }
+
+    private void apply(StripeEvent event) {
+        String status = paymentStatusFor(event.getType());
+        if (status == null) return;
+
+        JsonNode object;
+        try {
+            object = objectMapper.readTree(event.getPayload()).path("data").path("object");
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unreadable event payload", ex);
+        }
+        Payment payment = paymentRepository.findByStripePaymentId(event.getPaymentIntentId()).orElse(null);
+        if (payment == null) {
+            Long taskId = taskIdFor(object);
+            if (taskId == null) {
+                log.info("Stripe event {} for unknown PaymentIntent {} without task metadata, skipping", event.getId(), event.getPaymentIntentId());
+                return;
+            }
+            // Never a plain insert: create-payment-intent may record the same intent concurrently
+            paymentRepository.insertIfAbsent(taskId, BigDecimal.valueOf(object.path("amount").asLong()).movePointLeft(2),
+                    object.path("currency").asText(null), event.getPaymentIntentId());
+            payment = paymentRepository.findByStripePaymentId(event.getPaymentIntentId()).orElseThrow();
+        }
+        // Stripe may redeliver old events late; never move a payment back to an older state. created
+        // has one-second resolution, so events of the same second are ordered by status precedence
+        if (payment.getStripeEventCreatedAt() != null && event.getStripeCreatedAt().isBefore(payment.getStripeEventCreatedAt())) {
+            return;
+        }
+        if (precedence(status) < precedence(payment.getStatus())) {
+            return;
+        }
+        payment.setStatus(status);
+        payment.setStripeEventCreatedAt(event.getStripeCreatedAt());
+        payment.setUpdatedAt(OffsetDateTime.now());
+        paymentRepository.save(payment);
+    }
+
+    // PaymentIntents created outside create-payment-intent are still recorded if they name a task
+    private Long taskIdFor(JsonNode object) {
+        if (!"payment_intent".equals(object.path("object").asText())) return null;
+        JsonNode taskId = object.path("metadata").path("task_id");
+        if (!taskId.isTextual() || !taskId.asText().matches("\\d{1,18}")) return null;
+        Long id = Long.valueOf(taskId.asText());
+        return taskRepository.existsById(id) ? id : null;
+    }
+
+    static String paymentStatusFor(String eventType) {
+        return switch (eventType) {
+            case "payment_intent.created" -> "CREATED";
+            case "payment_intent.processing" -> "PROCESSING";
+            case "payment_intent.requires_action" -> "REQUIRES_ACTION";
+            case "payment_intent.succeeded" -> "SUCCEEDED";
+            case "payment_intent.payment_failed" -> "FAILED";
+            case "payment_intent.canceled" -> "CANCELED";
+            case "charge.refunded" -> "REFUNDED";
+            case "charge.dispute.created" -> "DISPUTED";
+            default -> null;
+        };
+    }
+
+    /**
+     * How far along the PaymentIntent lifecycle a status is. A payment never moves to a lower
+     * precedence, so a late {@code created} cannot undo {@code succeeded} from the same second.
+     * Statuses of equal precedence (e.g. a failed attempt followed by a retry) follow event order.
+     */
+    static int precedence(String status) {
+        return switch (status) {
+            case "PROCESSING", "REQUIRES_ACTION", "FAILED" -> 1;
+            case "SUCCEEDED", "CANCELED" -> 2;
+            case "REFUNDED", "DISPUTED" -> 3;
+            default -> 0;
+        };
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ExecutorService partition : partitions) partition.shutdown();
+        for (ExecutorService partition : partitions) partition.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,83 @@
+package com.demo.backend.service;
+
+import com.demo.backend.repository.StripeEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import com.stripe.net.Webhook;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Webhook intake: verify the signature, write the raw event to the stripe_events inbox and
+ * return. Nothing else happens on the request thread; StripeEventProcessor applies the events.
+ */
+@Service
+public class StripeWebhookService {
+
+    private final StripeEventRepository stripeEventRepository;
+    private final ObjectMapper objectMapper;
+    private final String webhookSecret;
+    private final Counter accepted;
+    private final Counter duplicates;
+    private final Counter rejected;
+
+    public StripeWebhookService(StripeEventRepository stripeEventRepository,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${stripe.webhook-secret:}") String webhookSecret) {
+        this.stripeEventRepository = stripeEventRepository;
+        this.objectMapper = objectMapper;
+        this.webhookSecret = webhookSecret;
+        this.accepted = meterRegistry.counter("stripe.webhook.events", "result", "accepted");
+        this.duplicates = meterRegistry.counter("stripe.webhook.events", "result", "duplicate");
+        this.rejected = meterRegistry.counter("stripe.webhook.events", "result", "rejected");
+    }
+
+    public boolean isConfigured() {
+        return webhookSecret != null && !webhookSecret.isBlank();
+    }
+
+    /**
+     * Stores a verified event. Returns false when the event id was already received.
+     */
+    public boolean receive(String payload, String signatureHeader) throws SignatureVerificationException {
+        Event event;
+        try {
+            event = Webhook.constructEvent(payload, signatureHeader, webhookSecret);
+        } catch (SignatureVerificationException ex) {
+            rejected.increment();
+            throw ex;
+        }
+        String paymentIntentId = paymentIntentId(payload);
+        OffsetDateTime created = OffsetDateTime.ofInstant(Instant.ofEpochSecond(event.getCreated()), ZoneOffset.UTC);
+        int inserted = stripeEventRepository.insertIfAbsent(event.getId(), event.getType(), paymentIntentId, payload,
+                paymentIntentId == null ? "IGNORED" : "PENDING", created);
+        if (inserted == 0) {
+            duplicates.increment();
+            return false;
+        }
+        accepted.increment();
+        return true;
+    }
+
+    // PaymentIntent events carry it as data.object.id, charge/refund events as data.object.payment_intent
+    String paymentIntentId(String payload) {
+        try {
+            JsonNode object = objectMapper.readTree(payload).path("data").path("object");
+            if ("payment_intent".equals(object.path("object").asText())) return object.path("id").asText(null);
+            JsonNode ref = object.path("payment_intent");
+            return ref.isTextual() ? ref.asText() : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.demo.backend.service;
+
+import com.demo.backend.dto.response.MessageDto;
+import com.demo.backend.model.Message;
+import com.demo.backend.repository.MessageRepository;
+import com.demo.backend.repository.TaskRepository;
+import com.demo.backend.repository.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@ConditionalOnProperty(name = "chat.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+public class SynchronousChatMessagePersister implements ChatMessagePersister {
+
+    private final MessageRepository messageRepository;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+
+    public SynchronousChatMessagePersister(MessageRepository messageRepository, TaskRepository taskRepository, UserRepository userRepository) {
+        this.messageRepository = messageRepository;
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    @Transactional
+    public MessageDto persist(Long taskId, Long senderId, String senderUsername, String content) {
+        // References only: the insert needs the foreign keys, not the task and user rows
+        Message m = Message.builder()
+                .task(taskRepository.getReferenceById(taskId))
+                .sender(userRepository.getReferenceById(senderId))
+                .content(content)
+                .build();
+        Message saved = messageRepository.save(m);
+        return new MessageDto(saved.getId(), taskId, senderUsername, content, saved.getCreatedAt());
+    }
+}
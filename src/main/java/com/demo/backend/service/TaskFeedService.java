@@ -0,0 +1,89 @@
+package com.demo.backend.service;
+
+import com.demo.backend.dto.response.CursorPageDto;
+import com.demo.backend.dto.response.TaskDto;
+import com.demo.backend.mappers.TaskMapper;
+import com.demo.backend.model.Task;
+import com.demo.backend.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+import static com.demo.backend.repository.TaskSpecifications.*;
+
+@Service
+public class TaskFeedService {
+
+    private static final Sort FEED_ORDER = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private final TaskRepository taskRepository;
+    private final TaskMapper taskMapper;
+
+    @Value("${tasks.feed.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${tasks.feed.max-page-size:100}")
+    private int maxPageSize;
+
+    public TaskFeedService(TaskRepository taskRepository, TaskMapper taskMapper) {
+        this.taskRepository = taskRepository;
+        this.taskMapper = taskMapper;
+    }
+
+    public record FeedFilter(String status, BigDecimal minBudget, BigDecimal maxBudget, Long createdBy) {}
+
+    /**
+     * Returns one page of the task feed, newest first, starting after the given cursor.
+     * Throws IllegalArgumentException if the cursor cannot be decoded.
+     */
+    public CursorPageDto<TaskDto> page(FeedFilter filter, String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        Specification<Task> spec = Specification.allOf(
+                hasStatus(filter.status()),
+                budgetAtLeast(filter.minBudget()),
+                budgetAtMost(filter.maxBudget()),
+                createdBy(filter.createdBy()),
+                fetchBidStats()
+        );
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor c = decode(cursor);
+            spec = spec.and(after(c.createdAt(), c.id()));
+        }
+
+        // Fetch one extra row to know whether another page exists without a count query
+        List<Task> rows = taskRepository.findBy(spec, q -> q.sortBy(FEED_ORDER).limit(pageSize + 1).all());
+        boolean hasMore = rows.size() > pageSize;
+        List<Task> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = hasMore ? encode(page.get(page.size() - 1)) : null;
+        return new CursorPageDto<>(page.stream().map(taskMapper::toDto).toList(), nextCursor);
+    }
+
+    private record Cursor(OffsetDateTime createdAt, Long id) {}
+
+    private static String encode(Task last) {
+        String raw = last.getCreatedAt().toInstant() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            Instant createdAt = Instant.parse(raw.substring(0, sep));
+            long id = Long.parseLong(raw.substring(sep + 1));
+            return new Cursor(createdAt.atOffset(ZoneOffset.UTC), id);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
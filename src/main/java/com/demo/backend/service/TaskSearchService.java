@@ -0,0 +1,70 @@
+package com.demo.backend.service;
+
+import com.demo.backend.dto.response.OffsetPageDto;
+import com.demo.backend.dto.response.TaskSearchResultDto;
+import com.demo.backend.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.List;
+
+@Service
+public class TaskSearchService {
+
+    // Match delimiters emitted by TaskRepository.search in place of markup
+    static final char MATCH_START = '\uE000';
+    static final char MATCH_END = '\uE001';
+
+    private final TaskRepository taskRepository;
+
+    @Value("${tasks.search.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${tasks.search.max-page-size:50}")
+    private int maxPageSize;
+
+    // OFFSET paging ranks and skips every earlier match, so deep pages are refused
+    @Value("${tasks.search.max-offset:1000}")
+    private int maxOffset;
+
+    public TaskSearchService(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    /** @throws IllegalArgumentException when the page starts beyond tasks.search.max-offset */
+    public OffsetPageDto<TaskSearchResultDto> search(String query, String status, Integer page, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        long offset = (long) pageNumber * pageSize;
+        if (offset > maxOffset) throw new IllegalArgumentException("Results beyond " + maxOffset + " are not available");
+
+        // Fetch one extra row to know whether another page exists without a count query.
+        // An empty status means "any status" so the native query never binds an untyped null.
+        var rows = taskRepository.search(query, status == null ? "" : status, pageSize + 1, offset);
+        boolean hasMore = rows.size() > pageSize && offset + pageSize <= maxOffset;
+        List<TaskSearchResultDto> items = rows.stream().limit(pageSize).map(TaskSearchService::toDto).toList();
+        return new OffsetPageDto<>(items, pageNumber, pageSize, hasMore);
+    }
+
+    private static TaskSearchResultDto toDto(TaskRepository.TaskSearchRow row) {
+        TaskSearchResultDto dto = new TaskSearchResultDto();
+        dto.setId(row.getId());
+        dto.setTitle(row.getTitle());
+        dto.setBudget(row.getBudget());
+        dto.setStatus(row.getStatus());
+        dto.setCreatedByClient(row.getCreatedBy());
+        dto.setRank(row.getRank() == null ? 0 : row.getRank());
+        dto.setTitleHighlight(highlight(row.getTitleHighlight()));
+        dto.setSnippet(highlight(row.getSnippet()));
+        return dto;
+    }
+
+    /** Escapes the task text, then wraps the delimited matches in &lt;mark&gt; tags. */
+    static String highlight(String headline) {
+        if (headline == null) return null;
+        return HtmlUtils.htmlEscape(headline, "UTF-8")
+                .replace(String.valueOf(MATCH_START), "<mark>")
+                .replace(String.valueOf(MATCH_END), "</mark>");
+    }
+}
@@ -0,0 +1,200 @@
+package com.demo.backend.service;
+
+import com.demo.backend.dto.response.UploadPartDto;
+import com.demo.backend.dto.response.UploadSessionDto;
+import com.demo.backend.model.UploadPart;
+import com.demo.backend.model.UploadSession;
+import com.demo.backend.repository.UploadPartRepository;
+import com.demo.backend.repository.UploadSessionRepository;
+import com.demo.backend.storage.PartRef;
+import com.demo.backend.storage.StorageBackend;
+import com.demo.backend.storage.StorageKeys;
+import com.demo.backend.storage.StoredObject;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Resumable chunked uploads. Each part is streamed to the storage backend as it arrives and
+ * recorded in upload_parts, so after a failure or restart the client asks for the session and
+ * sends only the missing parts. Sessions left unfinished past their expiry are swept.
+ * <p>
+ * Complete, abort and the sweep first claim the session with a conditional status change, so
+ * each session is finished exactly once even when requests or instances race for it.
+ * <p>
+ * Errors: NoSuchElementException for unknown or foreign sessions, IllegalArgumentException for
+ * bad part numbers or sizes, IllegalStateException when parts are missing on complete or the
+ * session is already being completed or aborted.
+ */
+@Slf4j
+@Service
+public class UploadSessionService {
+
+    // S3 limits: at most 10,000 parts, every part but the last at least 5 MiB
+    private static final int MAX_PARTS = 10_000;
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final int SWEEP_BATCH = 100;
+    // How long a sweeping instance owns the sessions it claimed before another may retry them
+    private static final Duration SWEEP_LEASE = Duration.ofMinutes(15);
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadPartRepository partRepository;
+    private final StorageBackend storage;
+    private final TransactionTemplate transactionTemplate;
+    private final long partSize;
+    private final Duration ttl;
+
+    public UploadSessionService(UploadSessionRepository sessionRepository,
+                                UploadPartRepository partRepository,
+                                StorageBackend storage,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${uploads.part-size:8388608}") long partSize,
+                                @Value("${uploads.ttl:PT24H}") Duration ttl) {
+        this.sessionRepository = sessionRepository;
+        this.partRepository = partRepository;
+        this.storage = storage;
+        this.transactionTemplate = transactionTemplate;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.ttl = ttl;
+    }
+
+    public UploadSessionDto initiate(Long userId, String filename, String contentType) throws IOException {
+        String key = StorageKeys.uploadKey(userId, filename);
+        String storageUploadId = storage.initiateMultipart(key, contentType);
+        UploadSession session = sessionRepository.save(UploadSession.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .objectKey(key)
+                .filename(StorageKeys.sanitize(filename))
+                .contentType(contentType)
+                .partSize(partSize)
+                .storageUploadId(storageUploadId)
+                .status("OPEN")
+                .expiresAt(OffsetDateTime.now().plus(ttl))
+                .build());
+        return toDto(session, List.of());
+    }
+
+    public UploadSessionDto status(Long userId, UUID uploadId) {
+        UploadSession session = owned(userId, uploadId);
+        return toDto(session, partRepository.findBySessionIdOrderByPartNumber(uploadId));
+    }
+
+    /**
+     * Streams one part to storage. Re-sending a part number replaces the earlier copy, so a part
+     * whose response was lost can simply be retried.
+     */
+    public UploadPartDto putPart(Long userId, UUID uploadId, int partNumber, InputStream content, long contentLength) throws IOException {
+        UploadSession session = open(owned(userId, uploadId));
+        if (partNumber < 1 || partNumber > MAX_PARTS) {
+            throw new IllegalArgumentException("Part number must be between 1 and " + MAX_PARTS);
+        }
+        if (contentLength <= 0 || contentLength > session.getPartSize()) {
+            throw new IllegalArgumentException("Part size must be between 1 and " + session.getPartSize() + " bytes");
+        }
+        String etag = storage.uploadPart(session.getObjectKey(), session.getStorageUploadId(), partNumber, content, contentLength);
+
+        UploadPart part = partRepository.findBySessionIdAndPartNumber(uploadId, partNumber)
+                .orElseGet(() -> UploadPart.builder().sessionId(uploadId).partNumber(partNumber).build());
+        part.setSize(contentLength);
+        part.setEtag(etag);
+        partRepository.save(part);
+
+        // Active uploads stay alive; only abandoned ones expire
+        sessionRepository.touch(uploadId, OffsetDateTime.now().plus(ttl));
+        return new UploadPartDto(partNumber, contentLength, etag);
+    }
+
+    public StoredObject complete(Long userId, UUID uploadId) throws IOException {
+        UploadSession session = owned(userId, uploadId);
+        claim(uploadId, "COMPLETING");
+        StoredObject stored;
+        try {
+            List<UploadPart> parts = partRepository.findBySessionIdOrderByPartNumber(uploadId);
+            if (parts.isEmpty()) throw new IllegalStateException("No parts uploaded");
+            for (int i = 0; i < parts.size(); i++) {
+                UploadPart part = parts.get(i);
+                if (part.getPartNumber() != i + 1) throw new IllegalStateException("Part " + (i + 1) + " is missing");
+                if (i < parts.size() - 1 && part.getSize() != session.getPartSize()) {
+                    throw new IllegalStateException("Part " + part.getPartNumber() + " is smaller than the part size");
+                }
+            }
+            stored = storage.completeMultipart(session.getObjectKey(), session.getStorageUploadId(),
+                    parts.stream().map(p -> new PartRef(p.getPartNumber(), p.getEtag())).toList());
+        } catch (IOException | RuntimeException ex) {
+            // Reopen so the client can send the missing parts or simply retry
+            sessionRepository.transition(uploadId, "COMPLETING", "OPEN", OffsetDateTime.now().plus(ttl));
+            throw ex;
+        }
+        sessionRepository.deleteById(uploadId); // parts cascade
+        return stored;
+    }
+
+    public void abort(Long userId, UUID uploadId) throws IOException {
+        UploadSession session = owned(userId, uploadId);
+        claim(uploadId, "ABORTING");
+        storage.abortMultipart(session.getObjectKey(), session.getStorageUploadId());
+        sessionRepository.deleteById(uploadId);
+    }
+
+    /**
+     * Every instance runs the sweep. Expired sessions are claimed under FOR UPDATE SKIP LOCKED in a
+     * short transaction, then cleaned up outside it; a claim whose sweeper died expires again and
+     * is picked up by a later sweep.
+     */
+    @Scheduled(fixedDelayString = "${uploads.sweep-interval-ms:900000}")
+    public void sweepExpired() {
+        List<UploadSession> expired = transactionTemplate.execute(status -> {
+            List<UploadSession> locked = sessionRepository.lockExpired(SWEEP_BATCH);
+            OffsetDateTime leaseUntil = OffsetDateTime.now().plus(SWEEP_LEASE);
+            locked.forEach(session -> {
+                session.setStatus("EXPIRING");
+                session.setExpiresAt(leaseUntil);
+            });
+            return locked;
+        });
+        if (expired == null || expired.isEmpty()) return;
+        for (UploadSession session : expired) {
+            try {
+                storage.abortMultipart(session.getObjectKey(), session.getStorageUploadId());
+                sessionRepository.deleteById(session.getId());
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Could not clean up expired upload {}: {}", session.getId(), ex.getMessage());
+            }
+        }
+        log.info("Swept {} expired upload sessions", expired.size());
+    }
+
+    private void claim(UUID uploadId, String status) {
+        if (sessionRepository.transition(uploadId, "OPEN", status, OffsetDateTime.now().plus(ttl)) == 0) {
+            throw new IllegalStateException("Upload is already being completed or aborted");
+        }
+    }
+
+    private static UploadSession open(UploadSession session) {
+        if (!"OPEN".equals(session.getStatus())) throw new IllegalStateException("Upload is already being completed or aborted");
+        return session;
+    }
+
+    private UploadSession owned(Long userId, UUID uploadId) {
+        return sessionRepository.findById(uploadId)
+                .filter(s -> s.getUserId().equals(userId))
+                .filter(s -> s.getExpiresAt().isAfter(OffsetDateTime.now()))
+                .orElseThrow(() -> new NoSuchElementException("Upload not found"));
+    }
+
+    private static UploadSessionDto toDto(UploadSession session, List<UploadPart> parts) {
+        return new UploadSessionDto(session.getId(), session.getFilename(), session.getPartSize(), session.getExpiresAt(),
+                parts.stream().map(p -> new UploadPartDto(p.getPartNumber(), p.getSize(), p.getEtag())).toList());
+    }
+}
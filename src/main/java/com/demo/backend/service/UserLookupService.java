@@ -0,0 +1,44 @@
+package com.demo.backend.service;
+
+import com.demo.backend.config.CacheConfig;
+import com.demo.backend.model.User;
+import com.demo.backend.repository.UserRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Cached read path for users. Cached instances are shared between requests and must be treated
+ * as read-only: to change a user, load it from {@link UserRepository} and write it back through
+ * {@link #save(User)} so both caches are evicted.
+ */
+@Service
+public class UserLookupService {
+
+    private final UserRepository userRepository;
+
+    public UserLookupService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#email", unless = "#result == null")
+    public Optional<User> findByEmail(String email) {
+        return userRepository.findByEmail(email);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#username", unless = "#result == null")
+    public Optional<User> findByUsername(String username) {
+        return userRepository.findByUsername(username);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#user.email"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#user.username")
+    })
+    public User save(User user) {
+        return userRepository.save(user);
+    }
+}
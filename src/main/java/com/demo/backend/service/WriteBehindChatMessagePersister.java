@@ -0,0 +1,236 @@
+package com.demo.backend.service;
+
+import com.demo.backend.dto.response.MessageDto;
+import com.demo.backend.exceptions.ChatBackpressureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind persistence for chat messages. Ids are taken from blocks of messages_id_seq so a
+ * message can be broadcast immediately; the rows are appended to a bounded queue and inserted
+ * in multi-row batches when the batch fills or the flush interval elapses.
+ * <p>
+ * A message that was broadcast can still be lost if its batch keeps failing or the process
+ * dies before the flush; that is the trade-off of this opt-in mode. A constraint violation only
+ * loses the rows that caused it: the batch is split until they are isolated.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.write-behind.enabled", havingValue = "true")
+public class WriteBehindChatMessagePersister implements ChatMessagePersister, SmartLifecycle {
+
+    // A retried or split batch may contain rows an earlier attempt already committed
+    private static final String INSERT_SQL =
+            "INSERT INTO messages (id, task_id, sender_id, content, created_at) VALUES (?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (id) DO NOTHING";
+
+    private record PendingMessage(long id, long taskId, long senderId, String content, OffsetDateTime createdAt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<PendingMessage> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final int maxFlushAttempts;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Counter dropped;
+
+    private long nextId;
+    private long lastIdInBlock = -1;
+    private long idBlockSize;
+
+    // Senders hold the read side from the running check until their message is queued, so stop()
+    // cannot let the flusher drain and exit between the two and strand an acknowledged message
+    private final ReadWriteLock acceptGate = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public WriteBehindChatMessagePersister(JdbcTemplate jdbcTemplate,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity,
+                                           @Value("${chat.write-behind.batch-size:200}") int batchSize,
+                                           @Value("${chat.write-behind.flush-interval-ms:50}") long flushIntervalMs,
+                                           @Value("${chat.write-behind.offer-timeout-ms:200}") long offerTimeoutMs,
+                                           @Value("${chat.write-behind.max-flush-attempts:3}") int maxFlushAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxFlushAttempts = maxFlushAttempts;
+
+        Gauge.builder("chat.writebehind.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.flushTimer = meterRegistry.timer("chat.writebehind.flush");
+        this.batchSizes = meterRegistry.summary("chat.writebehind.batch.size");
+        this.rejected = meterRegistry.counter("chat.writebehind.rejected");
+        this.dropped = meterRegistry.counter("chat.writebehind.dropped");
+    }
+
+    @Override
+    public MessageDto persist(Long taskId, Long senderId, String senderUsername, String content) {
+        PendingMessage pending;
+        Lock accepting = acceptGate.readLock();
+        accepting.lock();
+        try {
+            if (!running) throw new ChatBackpressureException("Chat is not accepting messages");
+            pending = new PendingMessage(nextId(), taskId, senderId, content, OffsetDateTime.now());
+            // Backpressure: wait briefly for room, then refuse rather than grow without bound
+            if (!queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new ChatBackpressureException("Chat is busy, please retry");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ChatBackpressureException("Interrupted while queueing message");
+        } finally {
+            accepting.unlock();
+        }
+        return new MessageDto(pending.id(), taskId, senderUsername, content, pending.createdAt());
+    }
+
+    /**
+     * Hands out ids from blocks reserved with one nextval() each. Matches Hibernate's pooled-lo
+     * use of the same sequence, so ids never collide with JPA inserts.
+     */
+    private synchronized long nextId() {
+        if (nextId > lastIdInBlock) {
+            if (idBlockSize == 0) {
+                Long increment = jdbcTemplate.queryForObject(
+                        "SELECT increment_by FROM pg_sequences WHERE sequencename = 'messages_id_seq'", Long.class);
+                idBlockSize = increment == null ? 1 : increment;
+            }
+            Long lo = jdbcTemplate.queryForObject("SELECT nextval('messages_id_seq')", Long.class);
+            nextId = lo;
+            lastIdInBlock = lo + idBlockSize - 1;
+        }
+        return nextId++;
+    }
+
+    private void runFlusher() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                // Size trigger: fill up to batchSize; time trigger: stop waiting at the deadline
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                flush(batch);
+            } catch (InterruptedException ex) {
+                // Woken up by stop(): flush what was collected, the loop then drains the rest
+                if (!batch.isEmpty()) flush(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        for (int attempt = 1; attempt <= maxFlushAttempts; attempt++) {
+            try {
+                flushTimer.record(() -> insert(batch));
+                batchSizes.record(batch.size());
+                return;
+            } catch (DataIntegrityViolationException ex) {
+                // Not transient: retrying the same rows fails the same way, so isolate the bad ones
+                isolate(batch, ex);
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Chat batch flush of {} messages failed (attempt {}/{}): {}", batch.size(), attempt, maxFlushAttempts, ex.getMessage());
+            }
+        }
+        dropped.increment(batch.size());
+        log.error("Dropped {} chat messages after {} failed flush attempts", batch.size(), maxFlushAttempts);
+    }
+
+    /**
+     * Splits a batch that violated a constraint in half and flushes each half on its own, so only
+     * the offending rows (e.g. a message whose task was deleted meanwhile) are dropped. Costs about
+     * 2 log2(n) extra statements per bad row.
+     */
+    private void isolate(List<PendingMessage> batch, DataIntegrityViolationException ex) {
+        if (batch.size() == 1) {
+            PendingMessage m = batch.get(0);
+            dropped.increment();
+            log.error("Dropped chat message {} for task {}: {}", m.id(), m.taskId(), ex.getMostSpecificCause().getMessage());
+            return;
+        }
+        int mid = batch.size() / 2;
+        flush(batch.subList(0, mid));
+        flush(batch.subList(mid, batch.size()));
+    }
+
+    private void insert(List<PendingMessage> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, m) -> {
+            ps.setLong(1, m.id());
+            ps.setLong(2, m.taskId());
+            ps.setLong(3, m.senderId());
+            ps.setString(4, m.content());
+            ps.setTimestamp(5, Timestamp.from(m.createdAt().toInstant()));
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "chat-write-behind");
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        // Stop accepting once in-progress sends have queued, then let the flusher drain what is queued
+        Lock closing = acceptGate.writeLock();
+        closing.lock();
+        try {
+            running = false;
+        } finally {
+            closing.unlock();
+        }
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) log.error("{} chat messages were not flushed before shutdown", queue.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
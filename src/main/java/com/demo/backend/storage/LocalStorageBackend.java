@@ -0,0 +1,169 @@
+package com.demo.backend.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Stores files under storage.local.root. Content is copied through one chunk-sized buffer into a
+ * temporary file which is then moved into place, so readers never see a partial file.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalStorageBackend implements StorageBackend {
+
+    private final Path root;
+    // Parts of unfinished multipart uploads, kept outside root so they are never served
+    private final Path partsRoot;
+    private final int chunkSize;
+
+    public LocalStorageBackend(@Value("${storage.local.root:./data/files}") String root,
+                               @Value("${storage.local.parts-root:./data/parts}") String partsRoot,
+                               @Value("${storage.local.chunk-size:65536}") int chunkSize) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.partsRoot = Path.of(partsRoot).toAbsolutePath().normalize();
+        this.chunkSize = chunkSize;
+        Files.createDirectories(this.root);
+        Files.createDirectories(this.partsRoot);
+    }
+
+    @Override
+    public StoredObject store(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            long written = copy(Channels.newChannel(content), tmp);
+            if (contentLength >= 0 && written != contentLength) {
+                throw new IOException("Expected " + contentLength + " bytes but received " + written);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new StoredObject(key, written);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private long copy(ReadableByteChannel source, Path target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+        long written = 0;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) written += out.write(buffer);
+                buffer.clear();
+            }
+            out.force(false);
+        }
+        return written;
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public String initiateMultipart(String key, String contentType) throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        Files.createDirectories(partsRoot.resolve(uploadId));
+        return uploadId;
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, InputStream content, long contentLength) throws IOException {
+        Path dir = partsDir(uploadId);
+        Path tmp = Files.createTempFile(dir, ".part-", ".tmp");
+        try {
+            long written = copy(Channels.newChannel(content), tmp);
+            if (written != contentLength) {
+                throw new IOException("Expected " + contentLength + " bytes but received " + written);
+            }
+            Path part = dir.resolve(partNumber + ".part");
+            Files.move(tmp, part, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return Long.toHexString(written) + "-" + Long.toHexString(Files.getLastModifiedTime(part).toMillis());
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public StoredObject completeMultipart(String key, String uploadId, List<PartRef> parts) throws IOException {
+        Path dir = partsDir(uploadId);
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        long written = 0;
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (PartRef ref : parts) {
+                    try (FileChannel in = FileChannel.open(dir.resolve(ref.partNumber() + ".part"), StandardOpenOption.READ)) {
+                        long size = in.size();
+                        long position = 0;
+                        while (position < size) position += in.transferTo(position, size - position, out);
+                        written += size;
+                    }
+                }
+                out.force(false);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        abortMultipart(key, uploadId);
+        return new StoredObject(key, written);
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId) throws IOException {
+        Path dir = partsDir(uploadId);
+        if (!Files.isDirectory(dir)) return;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    private Path partsDir(String uploadId) {
+        Path dir = partsRoot.resolve(uploadId).normalize();
+        if (!dir.getParent().equals(partsRoot)) throw new IllegalArgumentException("Invalid upload id");
+        return dir;
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Maps a key to a path under the root, rejecting keys that would escape it.
+     */
+    public Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid storage key");
+        }
+        return path;
+    }
+}
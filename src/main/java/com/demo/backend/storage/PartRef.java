@@ -0,0 +1,3 @@
+package com.demo.backend.storage;
+
+public record PartRef(int partNumber, String etag) {}
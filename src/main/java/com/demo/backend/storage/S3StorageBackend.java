@@ -0,0 +1,143 @@
+package com.demo.backend.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
+public class S3StorageBackend implements StorageBackend {
+
+    private final S3Client s3;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final Duration downloadUrlTtl;
+
+    public S3StorageBackend(S3Client s3,
+                            S3Presigner presigner,
+                            @Value("${aws.s3.bucket:}") String bucket,
+                            @Value("${storage.s3.download-url-ttl:PT5M}") Duration downloadUrlTtl) {
+        this.s3 = s3;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.downloadUrlTtl = downloadUrlTtl;
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return bucket != null && !bucket.isBlank();
+    }
+
+    @Override
+    public StoredObject store(String key, InputStream content, long contentLength, String contentType) {
+        // With a known length the SDK streams the body instead of buffering it
+        s3.putObject(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .build(),
+                RequestBody.fromInputStream(content, contentLength));
+        return new StoredObject(key, contentLength);
+    }
+
+    @Override
+    public void delete(String key) {
+        s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    @Override
+    public InputStream open(String key) {
+        return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    @Override
+    public String initiateMultipart(String key, String contentType) {
+        return s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, InputStream content, long contentLength) {
+        return s3.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength(contentLength)
+                        .build(),
+                RequestBody.fromInputStream(content, contentLength)).eTag();
+    }
+
+    @Override
+    public StoredObject completeMultipart(String key, String uploadId, List<PartRef> parts) {
+        s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder()
+                        .parts(parts.stream()
+                                .map(p -> CompletedPart.builder().partNumber(p.partNumber()).eTag(p.etag()).build())
+                                .toList())
+                        .build())
+                .build());
+        long size = s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build()).contentLength();
+        return new StoredObject(key, size);
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId) {
+        try {
+            s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (NoSuchUploadException ex) {
+            // Already aborted or completed, e.g. by a sweep whose delete did not commit: nothing left to free
+        }
+    }
+
+    public String bucket() {
+        return bucket;
+    }
+
+    // The bucket stays private: a caller FileController authorized gets a signed GET that soon expires
+    @Override
+    public Optional<URI> temporaryDownloadUrl(String key) {
+        String url = presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(downloadUrlTtl)
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucket).key(key).build())
+                .build()).url().toString();
+        try {
+            return Optional.of(new URI(url));
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException("Presigned URL is not a valid URI", ex);
+        }
+    }
+}
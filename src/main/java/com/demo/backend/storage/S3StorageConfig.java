@@ -0,0 +1,40 @@
+package com.demo.backend.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
+public class S3StorageConfig {
+
+    // One client for the application: it owns the connection pool and caches credentials
+    @Bean(destroyMethod = "close")
+    public S3Client s3Client(@Value("${aws.s3.region:us-east-1}") String region,
+                             @Value("${storage.s3.max-connections:50}") int maxConnections) {
+        return S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+                .httpClientBuilder(ApacheHttpClient.builder()
+                        .maxConnections(maxConnections)
+                        .connectionTimeout(Duration.ofSeconds(5)))
+                .build();
+    }
+
+    // Signs download URLs locally; makes no requests of its own
+    @Bean(destroyMethod = "close")
+    public S3Presigner s3Presigner(@Value("${aws.s3.region:us-east-1}") String region) {
+        return S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+                .build();
+    }
+}
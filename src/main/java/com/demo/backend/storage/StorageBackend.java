@@ -0,0 +1,57 @@
+package com.demo.backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where uploaded files live. Implementations stream the content and never hold a whole file in
+ * memory; storage.backend selects S3 (default) or the local filesystem.
+ */
+public interface StorageBackend {
+
+    /**
+     * Stores {@code contentLength} bytes read from {@code content} under {@code key}.
+     * The caller owns and closes the stream.
+     */
+    StoredObject store(String key, InputStream content, long contentLength, String contentType) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /** Opens the stored object for reading; the caller closes the stream. */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * A short-lived URL a client that was already authorized for {@code key} can fetch it from
+     * directly; empty when the bytes are served by this application. Clients are only ever given
+     * {@link StorageKeys#downloadPath}, never a backend URL.
+     */
+    default Optional<URI> temporaryDownloadUrl(String key) {
+        return Optional.empty();
+    }
+
+    /** The file backing {@code key} when it is served by this application, empty for remote stores. */
+    default Optional<Path> localFile(String key) {
+        return Optional.empty();
+    }
+
+    // Multipart uploads: parts are stored as they arrive and only assembled into the object on complete
+
+    /** Starts a multipart upload for {@code key} and returns the backend's upload id. */
+    String initiateMultipart(String key, String contentType) throws IOException;
+
+    /** Stores one part and returns its ETag, which must be passed back on complete. */
+    String uploadPart(String key, String uploadId, int partNumber, InputStream content, long contentLength) throws IOException;
+
+    StoredObject completeMultipart(String key, String uploadId, List<PartRef> parts) throws IOException;
+
+    void abortMultipart(String key, String uploadId) throws IOException;
+
+    /** False when the backend is selected but not configured (e.g. no S3 bucket). */
+    default boolean isConfigured() {
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.demo.backend.storage;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class StorageKeys {
+
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final Pattern BLOB_KEY = Pattern.compile("blobs/[0-9a-f]{2}/([0-9a-f]{64})|thumbnails/([0-9a-f]{64})\\.jpg");
+    private static final Pattern UPLOAD_KEY = Pattern.compile("uploads/(\\d+)/[^/]+");
+
+    private StorageKeys() {
+    }
+
+    // Chunked uploads are not attachments, so the owner is part of the key
+    public static String uploadKey(Long userId, String originalFilename) {
+        return "uploads/" + userId + "/" + UUID.randomUUID() + "-" + sanitize(originalFilename);
+    }
+
+    // Content-addressed objects, fanned out by the first hash byte to keep directories small
+    public static String blobKey(String sha256Hex) {
+        return "blobs/" + sha256Hex.substring(0, 2) + "/" + sha256Hex;
+    }
+
+    public static String thumbnailKey(String sha256Hex) {
+        return "thumbnails/" + sha256Hex + ".jpg";
+    }
+
+    /** Where clients download an object: through FileController, which checks who may read it. */
+    public static String downloadPath(String key) {
+        return "/api/files/" + key;
+    }
+
+    /** The content hash behind a blob or thumbnail key. */
+    public static Optional<String> blobHash(String key) {
+        Matcher m = BLOB_KEY.matcher(key);
+        if (!m.matches()) return Optional.empty();
+        return Optional.of(m.group(1) != null ? m.group(1) : m.group(2));
+    }
+
+    /** The user a chunked upload key belongs to. */
+    public static Optional<Long> uploadOwner(String key) {
+        Matcher m = UPLOAD_KEY.matcher(key);
+        return m.matches() ? Optional.of(Long.valueOf(m.group(1))) : Optional.empty();
+    }
+
+    // Client file names end up in object keys and paths: keep a safe subset and drop any directory part
+    public static String sanitize(String filename) {
+        if (filename == null || filename.isBlank()) return "file";
+        String name = filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1);
+        name = name.replaceAll("[^A-Za-z0-9._-]", "_").replaceAll("^\\.+", "");
+        if (name.isEmpty()) return "file";
+        return name.length() > MAX_NAME_LENGTH ? name.substring(name.length() - MAX_NAME_LENGTH) : name;
+    }
+}
@@ -0,0 +1,22 @@
+-- Preview metadata, filled in per blob by AttachmentProcessor
+ALTER TABLE blobs ADD COLUMN IF NOT EXISTS width INT;
+ALTER TABLE blobs ADD COLUMN IF NOT EXISTS height INT;
+ALTER TABLE blobs ADD COLUMN IF NOT EXISTS page_count INT;
+ALTER TABLE blobs ADD COLUMN IF NOT EXISTS thumbnail_key VARCHAR(512);
+
+-- One processing job per blob; claimed with FOR UPDATE SKIP LOCKED, retried with backoff.
+-- A RUNNING job whose lease has passed (worker died) is claimed again.
+CREATE TABLE IF NOT EXISTS attachment_jobs (
+    id               BIGSERIAL PRIMARY KEY,
+    blob_hash        CHAR(64) NOT NULL UNIQUE REFERENCES blobs(hash) ON DELETE CASCADE,
+    status           VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts         INT NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    locked_until     TIMESTAMPTZ,
+    last_error       TEXT,
+    created_at       TIMESTAMPTZ DEFAULT now(),
+    finished_at      TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_attachment_jobs_pending ON attachment_jobs (next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_attachment_jobs_running ON attachment_jobs (locked_until) WHERE status = 'RUNNING';
@@ -0,0 +1,25 @@
+-- Verified Stripe webhook events, stored as received and deduplicated by event id.
+-- StripeEventProcessor applies them to payments in order per PaymentIntent.
+CREATE TABLE IF NOT EXISTS stripe_events (
+    id                 VARCHAR(255) PRIMARY KEY,
+    type               VARCHAR(100) NOT NULL,
+    payment_intent_id  VARCHAR(100),
+    payload            TEXT NOT NULL,
+    -- PENDING, PROCESSED, IGNORED (no PaymentIntent) or FAILED (gave up)
+    status             VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts           INT NOT NULL DEFAULT 0,
+    next_attempt_at    TIMESTAMPTZ NOT NULL DEFAULT now(),
+    last_error         TEXT,
+    stripe_created_at  TIMESTAMPTZ NOT NULL,
+    received_at        TIMESTAMPTZ NOT NULL DEFAULT now(),
+    processed_at       TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_stripe_events_pending
+    ON stripe_events (payment_intent_id, stripe_created_at, received_at) WHERE status = 'PENDING';
+
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS currency VARCHAR(3);
+-- created timestamp of the last Stripe event applied, so late redeliveries cannot roll state back
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS stripe_event_created_at TIMESTAMPTZ;
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_payments_stripe_payment_id ON payments (stripe_payment_id);
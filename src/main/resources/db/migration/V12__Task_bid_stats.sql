@@ -0,0 +1,100 @@
+-- Per-task bid statistics for the task feed, kept up to date by triggers so reading them costs
+-- one joined row per task regardless of how many bids it has. Only bids still in play
+-- (PENDING or ACCEPTED) are counted. Every task has a row, created with the task.
+CREATE TABLE IF NOT EXISTS task_bid_stats (
+    task_id        BIGINT PRIMARY KEY REFERENCES tasks(id) ON DELETE CASCADE,
+    bid_count      INT NOT NULL DEFAULT 0,
+    amount_sum     NUMERIC(14,2) NOT NULL DEFAULT 0,
+    lowest_amount  NUMERIC(12,2)
+);
+
+CREATE OR REPLACE FUNCTION task_bid_stats_create() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO task_bid_stats (task_id) VALUES (NEW.id) ON CONFLICT (task_id) DO NOTHING;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_task_bid_stats_create ON tasks;
+CREATE TRIGGER trg_task_bid_stats_create
+    AFTER INSERT ON tasks
+    FOR EACH ROW EXECUTE FUNCTION task_bid_stats_create();
+
+-- Statement-level so a bulk update (e.g. rejecting every other bid) touches each task's row once.
+-- count and sum are applied as deltas; the lowest amount is only recomputed for tasks that lost
+-- a counted bid, in a separate statement so its snapshot sees bids committed while this one
+-- waited for the stats row lock.
+CREATE OR REPLACE FUNCTION task_bid_stats_apply() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE task_bid_stats s
+           SET bid_count = s.bid_count + d.n,
+               amount_sum = s.amount_sum + d.amount,
+               lowest_amount = LEAST(s.lowest_amount, d.lowest)
+          FROM (SELECT task_id, count(*) AS n, sum(amount) AS amount, min(amount) AS lowest
+                  FROM new_bids WHERE status <> 'REJECTED' GROUP BY task_id) d
+         WHERE s.task_id = d.task_id;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        UPDATE task_bid_stats s
+           SET bid_count = s.bid_count - d.n,
+               amount_sum = s.amount_sum - d.amount
+          FROM (SELECT task_id, count(*) AS n, sum(amount) AS amount
+                  FROM old_bids WHERE status <> 'REJECTED' GROUP BY task_id) d
+         WHERE s.task_id = d.task_id;
+
+        UPDATE task_bid_stats s
+           SET lowest_amount = (SELECT min(b.amount) FROM bids b
+                                 WHERE b.task_id = s.task_id AND b.status <> 'REJECTED')
+         WHERE s.task_id IN (SELECT task_id FROM old_bids WHERE status <> 'REJECTED');
+        RETURN NULL;
+    END IF;
+
+    UPDATE task_bid_stats s
+       SET bid_count = s.bid_count + d.n,
+           amount_sum = s.amount_sum + d.amount,
+           lowest_amount = LEAST(s.lowest_amount, d.added_lowest)
+      FROM (SELECT task_id, sum(n) AS n, sum(amount) AS amount,
+                   min(amount) FILTER (WHERE n > 0) AS added_lowest
+              FROM (SELECT task_id, 1 AS n, amount FROM new_bids WHERE status <> 'REJECTED'
+                    UNION ALL
+                    SELECT task_id, -1, -amount FROM old_bids WHERE status <> 'REJECTED') c
+             GROUP BY task_id) d
+     WHERE s.task_id = d.task_id;
+
+    -- Only tasks where a counted bid was rejected or raised can have lost their lowest amount
+    UPDATE task_bid_stats s
+       SET lowest_amount = (SELECT min(b.amount) FROM bids b
+                             WHERE b.task_id = s.task_id AND b.status <> 'REJECTED')
+     WHERE s.task_id IN (SELECT o.task_id FROM old_bids o JOIN new_bids n ON n.id = o.id
+                          WHERE o.status <> 'REJECTED'
+                            AND (n.status = 'REJECTED' OR n.amount > o.amount OR n.task_id <> o.task_id));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Transition tables allow only one event per trigger, hence three triggers on one function
+DROP TRIGGER IF EXISTS trg_task_bid_stats_insert ON bids;
+CREATE TRIGGER trg_task_bid_stats_insert
+    AFTER INSERT ON bids REFERENCING NEW TABLE AS new_bids
+    FOR EACH STATEMENT EXECUTE FUNCTION task_bid_stats_apply();
+
+DROP TRIGGER IF EXISTS trg_task_bid_stats_update ON bids;
+CREATE TRIGGER trg_task_bid_stats_update
+    AFTER UPDATE ON bids REFERENCING OLD TABLE AS old_bids NEW TABLE AS new_bids
+    FOR EACH STATEMENT EXECUTE FUNCTION task_bid_stats_apply();
+
+DROP TRIGGER IF EXISTS trg_task_bid_stats_delete ON bids;
+CREATE TRIGGER trg_task_bid_stats_delete
+    AFTER DELETE ON bids REFERENCING OLD TABLE AS old_bids
+    FOR EACH STATEMENT EXECUTE FUNCTION task_bid_stats_apply();
+
+-- Backfill existing tasks
+INSERT INTO task_bid_stats (task_id, bid_count, amount_sum, lowest_amount)
+SELECT t.id, count(b.id), coalesce(sum(b.amount), 0), min(b.amount)
+  FROM tasks t
+  LEFT JOIN bids b ON b.task_id = t.id AND b.status <> 'REJECTED'
+ GROUP BY t.id
+ON CONFLICT (task_id) DO NOTHING;
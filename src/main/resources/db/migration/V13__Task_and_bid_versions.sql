@@ -0,0 +1,4 @@
+-- Optimistic locking for tasks and bids (@Version). Bulk state transitions bump the version too,
+-- so an entity loaded before an acceptance cannot be written back over it.
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bids ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
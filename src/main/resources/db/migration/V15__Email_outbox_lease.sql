@@ -0,0 +1,3 @@
+-- EmailOutboxDispatcher claims entries by setting a lease and sends them outside the claiming
+-- transaction, so a slow SMTP server no longer holds row locks and a connection open.
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS locked_until TIMESTAMPTZ;
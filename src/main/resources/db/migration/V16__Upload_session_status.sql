@@ -0,0 +1,4 @@
+-- Completing, aborting and sweeping a session each claim it with a conditional status change
+-- first, so a double-clicked complete or two instances sweeping at once handle it only once.
+-- OPEN, COMPLETING, ABORTING or EXPIRING; expires_at doubles as the lease on the non-open states.
+ALTER TABLE upload_sessions ADD COLUMN IF NOT EXISTS status VARCHAR(20) NOT NULL DEFAULT 'OPEN';
@@ -0,0 +1,5 @@
+-- Chat history now pages by (created_at, id) instead of id alone: ids come from per-instance
+-- blocks and write-behind rows are inserted after their id is taken, so id order is neither
+-- send order nor commit order. Replaces the (task_id, id) index from V6.
+CREATE INDEX IF NOT EXISTS idx_messages_task_created_id ON messages (task_id, created_at, id);
+DROP INDEX IF EXISTS idx_messages_task_id_id;
@@ -0,0 +1,5 @@
+-- Keyset indexes for the task feed: (created_at DESC, id DESC) is the feed order,
+-- the status and creator variants serve the filtered feeds without a sort step.
+CREATE INDEX IF NOT EXISTS idx_tasks_created_at_id ON tasks (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_tasks_status_created_at_id ON tasks (status, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_tasks_created_by_created_at_id ON tasks (created_by, created_at DESC, id DESC);
@@ -0,0 +1,2 @@
+-- Chat history is read per task in id order; serves both "before" and "after" keyset pages
+CREATE INDEX IF NOT EXISTS idx_messages_task_id_id ON messages (task_id, id);
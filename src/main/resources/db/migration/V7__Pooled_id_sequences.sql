@@ -0,0 +1,12 @@
+-- Entities now take ids from their sequences in blocks of 50 (Hibernate pooled-lo optimizer)
+-- so inserts can be JDBC-batched. The column defaults keep using the same sequences; with
+-- pooled-lo each nextval() reserves [value, value + 49], so default-based inserts never
+-- collide with ids handed out by Hibernate.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 50;
+ALTER SEQUENCE bids_id_seq INCREMENT BY 50;
+ALTER SEQUENCE milestones_id_seq INCREMENT BY 50;
+ALTER SEQUENCE messages_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE otp_tokens_id_seq INCREMENT BY 50;
+ALTER SEQUENCE email_outbox_id_seq INCREMENT BY 50;
@@ -0,0 +1,27 @@
+-- Resumable chunked uploads: a session per file, a row per stored part. Parts live in the
+-- storage backend (S3 multipart upload or local part files) until the session is completed.
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id                 UUID PRIMARY KEY,
+    user_id            BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    object_key         VARCHAR(512) NOT NULL,
+    filename           VARCHAR(255) NOT NULL,
+    content_type       VARCHAR(255),
+    part_size          BIGINT NOT NULL,
+    storage_upload_id  VARCHAR(1024) NOT NULL,
+    expires_at         TIMESTAMPTZ NOT NULL,
+    created_at         TIMESTAMPTZ DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_expires_at ON upload_sessions (expires_at);
+
+CREATE TABLE IF NOT EXISTS upload_parts (
+    id           BIGSERIAL PRIMARY KEY,
+    session_id   UUID NOT NULL REFERENCES upload_sessions(id) ON DELETE CASCADE,
+    part_number  INT NOT NULL,
+    size         BIGINT NOT NULL,
+    etag         VARCHAR(255) NOT NULL,
+    created_at   TIMESTAMPTZ DEFAULT now(),
+    UNIQUE (session_id, part_number)
+);
+
+ALTER SEQUENCE upload_parts_id_seq INCREMENT BY 50;
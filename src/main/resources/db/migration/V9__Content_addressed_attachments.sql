@@ -0,0 +1,50 @@
+-- Attachment bytes are stored once per SHA-256 content hash. attachments links a blob to the
+-- task / message it was uploaded for; blobs.ref_count is kept by triggers (so cascaded
+-- deletes are counted too) and blobs at zero are removed by BlobGarbageCollector after a grace period.
+CREATE TABLE IF NOT EXISTS blobs (
+    hash                CHAR(64) PRIMARY KEY,
+    object_key          VARCHAR(512) NOT NULL,
+    size                BIGINT NOT NULL,
+    content_type        VARCHAR(255),
+    ref_count           INT NOT NULL DEFAULT 0,
+    unreferenced_since  TIMESTAMPTZ DEFAULT now(),
+    created_at          TIMESTAMPTZ DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_blobs_unreferenced ON blobs (unreferenced_since) WHERE ref_count = 0;
+
+CREATE TABLE IF NOT EXISTS attachments (
+    id            BIGSERIAL PRIMARY KEY,
+    blob_hash     CHAR(64) NOT NULL REFERENCES blobs(hash),
+    filename      VARCHAR(255) NOT NULL,
+    content_type  VARCHAR(255),
+    uploaded_by   BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    task_id       BIGINT REFERENCES tasks(id) ON DELETE CASCADE,
+    message_id    BIGINT REFERENCES messages(id) ON DELETE CASCADE,
+    created_at    TIMESTAMPTZ DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_attachments_blob_hash ON attachments (blob_hash);
+CREATE INDEX IF NOT EXISTS idx_attachments_task_id ON attachments (task_id);
+CREATE INDEX IF NOT EXISTS idx_attachments_message_id ON attachments (message_id);
+
+ALTER SEQUENCE attachments_id_seq INCREMENT BY 50;
+
+CREATE OR REPLACE FUNCTION attachments_ref_count() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE blobs SET ref_count = ref_count + 1, unreferenced_since = NULL WHERE hash = NEW.blob_hash;
+        RETURN NEW;
+    END IF;
+    UPDATE blobs
+       SET ref_count = ref_count - 1,
+           unreferenced_since = CASE WHEN ref_count = 1 THEN now() ELSE unreferenced_since END
+     WHERE hash = OLD.blob_hash;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_attachments_ref_count ON attachments;
+CREATE TRIGGER trg_attachments_ref_count
+    AFTER INSERT OR DELETE ON attachments
+    FOR EACH ROW EXECUTE FUNCTION attachments_ref_count();
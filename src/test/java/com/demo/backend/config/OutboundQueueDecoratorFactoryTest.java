@@ -0,0 +1,107 @@
+package com.demo.backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboundQueueDecoratorFactoryTest {
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private OutboundQueueDecoratorFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        if (factory != null) factory.destroy();
+    }
+
+    private WebSocketSession establish(WebSocketSession raw) throws Exception {
+        WebSocketHandler inner = mock(WebSocketHandler.class);
+        List<WebSocketSession> decorated = new ArrayList<>();
+        doAnswer(inv -> decorated.add(inv.getArgument(0))).when(inner).afterConnectionEstablished(any());
+        factory.decorate(inner).afterConnectionEstablished(raw);
+        return decorated.get(0);
+    }
+
+    private WebSocketSession stalledClient(String id) throws Exception {
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn(id);
+        doAnswer(inv -> {
+            unblock.await(); // full TCP window: the send never completes on its own
+            return null;
+        }).when(raw).sendMessage(any());
+        return raw;
+    }
+
+    @Test
+    void stalledSessionsDoNotDelayOtherSessions() throws Exception {
+        factory = new OutboundQueueDecoratorFactory(new SimpleMeterRegistry(), 16,
+                OutboundQueueDecoratorFactory.OverflowPolicy.DROP_OLDEST, Duration.ofSeconds(10));
+        // More stalled clients than the old fixed pool had send threads
+        for (int i = 0; i < 32; i++) {
+            establish(stalledClient("stalled-" + i)).sendMessage(new TextMessage("x"));
+        }
+        WebSocketSession healthyRaw = mock(WebSocketSession.class);
+        when(healthyRaw.getId()).thenReturn("healthy");
+        CountDownLatch delivered = new CountDownLatch(3);
+        doAnswer(inv -> {
+            delivered.countDown();
+            return null;
+        }).when(healthyRaw).sendMessage(any());
+
+        WebSocketSession healthy = establish(healthyRaw);
+        for (int i = 0; i < 3; i++) healthy.sendMessage(new TextMessage("m" + i));
+
+        assertTrue(delivered.await(2, TimeUnit.SECONDS), "healthy session was blocked by stalled ones");
+    }
+
+    @Test
+    void overflowCloseIsPerformedByTheDrainAfterTheInFlightSend() throws Exception {
+        factory = new OutboundQueueDecoratorFactory(new SimpleMeterRegistry(), 2,
+                OutboundQueueDecoratorFactory.OverflowPolicy.DISCONNECT, Duration.ofSeconds(10));
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn("slow");
+        CountDownLatch sending = new CountDownLatch(1);
+        AtomicBoolean inSend = new AtomicBoolean();
+        AtomicInteger overlaps = new AtomicInteger();
+        doAnswer(inv -> {
+            inSend.set(true);
+            sending.countDown();
+            unblock.await(5, TimeUnit.SECONDS);
+            inSend.set(false);
+            return null;
+        }).when(raw).sendMessage(any());
+        doAnswer(inv -> {
+            if (inSend.get()) overlaps.incrementAndGet();
+            return null;
+        }).when(raw).close(any(CloseStatus.class));
+
+        WebSocketSession session = establish(raw);
+        session.sendMessage(new TextMessage("first"));
+        assertTrue(sending.await(2, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) session.sendMessage(new TextMessage("burst" + i)); // overflows depth 2
+
+        verify(raw, never()).close(any(CloseStatus.class));
+        unblock.countDown();
+
+        verify(raw, timeout(2000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, overlaps.get(), "close ran concurrently with a send");
+        verify(raw, times(1)).sendMessage(any()); // nothing queued after the overflow is sent
+    }
+}
@@ -0,0 +1,63 @@
+package com.demo.backend.controller;
+
+import com.demo.backend.model.User;
+import com.demo.backend.repository.UserRepository;
+import com.demo.backend.security.JwtService;
+import com.demo.backend.service.EmailService;
+import com.demo.backend.service.OtpService;
+import com.demo.backend.service.UserLookupService;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AuthControllerTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final OtpService otpService = mock(OtpService.class);
+    private final UserLookupService userLookupService = mock(UserLookupService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AuthController controller = new AuthController(userRepository, passwordEncoder,
+            mock(AuthenticationManager.class), mock(JwtService.class), emailService, otpService, userLookupService,
+            new TransactionTemplate(transactionManager));
+
+    private static AuthController.RegisterRequest request() {
+        return new AuthController.RegisterRequest("alice", "alice@example.com", "secret1", null, "Alice", "bio");
+    }
+
+    @Test
+    void passwordIsHashedBeforeTheTransactionOpens() {
+        when(passwordEncoder.encode("secret1")).thenReturn("hash");
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(userLookupService.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(otpService.generateAndSaveOtp(any())).thenReturn("123456");
+
+        assertEquals(201, controller.register(request()).getStatusCode().value());
+
+        InOrder order = inOrder(passwordEncoder, transactionManager, userLookupService, emailService);
+        order.verify(passwordEncoder).encode("secret1");
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(userLookupService).save(argThat((User u) -> "hash".equals(u.getPasswordHash())));
+        order.verify(emailService).sendVerificationOtp("alice@example.com", "123456");
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void takenUsernameIsRefusedWithoutHashing() {
+        when(userRepository.existsByUsername("alice")).thenReturn(true);
+
+        assertEquals(400, controller.register(request()).getStatusCode().value());
+        verify(passwordEncoder, never()).encode(anyString());
+        verifyNoInteractions(transactionManager);
+    }
+}
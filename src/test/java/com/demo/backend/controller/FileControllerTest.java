@@ -0,0 +1,85 @@
+package com.demo.backend.controller;
+
+import com.demo.backend.repository.MessageRepository;
+import com.demo.backend.repository.TaskRepository;
+import com.demo.backend.security.AuthenticatedUser;
+import com.demo.backend.service.AttachmentService;
+import com.demo.backend.storage.LocalFileSender;
+import com.demo.backend.storage.LocalStorageBackend;
+import com.demo.backend.storage.StorageBackend;
+import com.demo.backend.storage.StorageKeys;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FileControllerTest {
+
+    private static final String HASH = "ab".repeat(32);
+
+    private final LocalStorageBackend storage = mock(LocalStorageBackend.class);
+    private final LocalFileSender sender = mock(LocalFileSender.class);
+    private final AttachmentService attachments = mock(AttachmentService.class);
+    private final TaskRepository tasks = mock(TaskRepository.class);
+    private final FileController controller = new FileController(storage, sender, attachments, tasks, mock(MessageRepository.class));
+
+    private static AuthenticatedUser user(long id) {
+        return new AuthenticatedUser(id, "user" + id, "", List.of());
+    }
+
+    private int download(long userId, String key) throws Exception {
+        when(storage.localFile(any())).thenReturn(Optional.of(Path.of("/tmp/x")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        var result = controller.download(user(userId), "/" + key, new MockHttpServletRequest(), response);
+        return result == null ? 200 : result.getStatusCode().value();
+    }
+
+    @Test
+    void blobIsServedToUploaderAndTaskParticipantsOnly() throws Exception {
+        when(attachments.audiences(HASH)).thenReturn(List.of(new AttachmentService.Audience(1L, 10L)));
+        when(tasks.isParticipant(10L, 2L)).thenReturn(true);
+
+        assertEquals(200, download(1, StorageKeys.blobKey(HASH)));
+        assertEquals(200, download(2, StorageKeys.thumbnailKey(HASH)));
+        assertEquals(404, download(3, StorageKeys.blobKey(HASH)));
+        verify(sender, times(2)).send(any(), any(), any());
+    }
+
+    @Test
+    void chunkedUploadIsServedToItsOwnerOnlyAndUnknownKeysAreNotFound() throws Exception {
+        String key = StorageKeys.uploadKey(5L, "report.pdf");
+
+        assertEquals(200, download(5, key));
+        assertEquals(404, download(6, key));
+        assertEquals(404, download(5, "uploads/0b7e0f1c-report.pdf"));
+        assertEquals(404, download(5, "../etc/passwd"));
+        verify(sender, times(1)).send(any(), any(), any());
+    }
+
+    @Test
+    void remoteObjectsRedirectToATemporaryUrlAfterAuthorization() throws Exception {
+        StorageBackend remote = mock(StorageBackend.class);
+        FileController s3Controller = new FileController(remote, sender, attachments, tasks, mock(MessageRepository.class));
+        String key = StorageKeys.uploadKey(5L, "report.pdf");
+        URI signed = URI.create("https://bucket.s3.amazonaws.com/" + key + "?X-Amz-Signature=abc");
+        when(remote.isConfigured()).thenReturn(true);
+        when(remote.temporaryDownloadUrl(key)).thenReturn(Optional.of(signed));
+
+        var allowed = s3Controller.download(user(5), "/" + key, new MockHttpServletRequest(), new MockHttpServletResponse());
+        var denied = s3Controller.download(user(6), "/" + key, new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        assertEquals(302, allowed.getStatusCode().value());
+        assertEquals(signed, allowed.getHeaders().getLocation());
+        assertEquals("no-store", allowed.getHeaders().getCacheControl());
+        assertEquals(404, denied.getStatusCode().value());
+        verify(remote, times(1)).temporaryDownloadUrl(any());
+    }
+}
@@ -0,0 +1,83 @@
+package com.demo.backend.controller;
+
+import com.demo.backend.dto.response.MessageDto;
+import com.demo.backend.dto.response.MessagePageDto;
+import com.demo.backend.repository.MessageRepository;
+import com.demo.backend.repository.TaskRepository;
+import com.demo.backend.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MessageControllerTest {
+
+    private static final AuthenticatedUser USER = new AuthenticatedUser(1L, "alice", "", List.of());
+
+    private final MessageRepository messages = mock(MessageRepository.class);
+    private final TaskRepository tasks = mock(TaskRepository.class);
+    private final MessageController controller = new MessageController(messages, tasks);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(controller, "maxPageSize", 10);
+        ReflectionTestUtils.setField(controller, "settleLag", Duration.ofSeconds(2));
+        when(tasks.isParticipant(10L, 1L)).thenReturn(true);
+    }
+
+    private static MessageDto message(long id, OffsetDateTime createdAt) {
+        return new MessageDto(id, 10L, "bob", "hi", createdAt);
+    }
+
+    @Test
+    void afterPagesFromTheCursorPositionAndStopsShortOfTheSettleLag() {
+        OffsetDateTime cursorTime = OffsetDateTime.now().minusMinutes(1);
+        when(messages.findCreatedAt(10L, 7L)).thenReturn(Optional.of(cursorTime));
+        when(messages.findAfter(eq(10L), eq(cursorTime), eq(7L), any(), any()))
+                .thenReturn(List.of(message(120, cursorTime.plusSeconds(1)), message(8, cursorTime.plusSeconds(2))));
+
+        OffsetDateTime before = OffsetDateTime.now();
+        var response = controller.history(USER, 10L, null, 7L, null);
+        OffsetDateTime after = OffsetDateTime.now();
+
+        ArgumentCaptor<OffsetDateTime> settled = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(messages).findAfter(eq(10L), eq(cursorTime), eq(7L), settled.capture(), any());
+        assertFalse(settled.getValue().isBefore(before.minusSeconds(2)));
+        assertFalse(settled.getValue().isAfter(after.minusSeconds(2)));
+        // A block-allocated id may be higher than a later message's; the order is the query's
+        MessagePageDto page = (MessagePageDto) response.getBody();
+        assertEquals(List.of(120L, 8L), page.getItems().stream().map(MessageDto::getId).toList());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void unknownCursorIsNotFound() {
+        when(messages.findCreatedAt(10L, 99L)).thenReturn(Optional.empty());
+
+        assertEquals(404, controller.history(USER, 10L, 99L, null, null).getStatusCode().value());
+        verify(messages, never()).findBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void latestPageIsReturnedOldestFirst() {
+        OffsetDateTime now = OffsetDateTime.now();
+        when(messages.findLatest(eq(10L), any(), any()))
+                .thenReturn(List.of(message(3, now), message(2, now.minusSeconds(1)), message(1, now.minusSeconds(2))));
+
+        MessagePageDto page = (MessagePageDto) controller.history(USER, 10L, null, null, null).getBody();
+
+        assertEquals(List.of(2L, 3L), page.getItems().stream().map(MessageDto::getId).toList());
+        assertTrue(page.isHasMore());
+    }
+}
@@ -0,0 +1,65 @@
+package com.demo.backend.controller;
+
+import com.demo.backend.repository.PaymentRepository;
+import com.demo.backend.repository.TaskRepository;
+import com.demo.backend.security.AuthenticatedUser;
+import com.demo.backend.security.IdempotencyFilter;
+import com.demo.backend.service.PaymentGateway;
+import com.demo.backend.service.StripeWebhookService;
+import com.stripe.model.PaymentIntent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PaymentControllerTest {
+
+    private static final AuthenticatedUser USER = new AuthenticatedUser(1L, "alice", "", List.of());
+    private static final PaymentController.CreatePaymentIntentRequest REQUEST =
+            new PaymentController.CreatePaymentIntentRequest(new BigDecimal("50.00"), "usd", null);
+
+    private final PaymentGateway gateway = mock(PaymentGateway.class);
+    private final PaymentController controller = new PaymentController(gateway, mock(StripeWebhookService.class),
+            mock(TaskRepository.class), mock(PaymentRepository.class));
+
+    @BeforeEach
+    void setUp() {
+        PaymentIntent intent = new PaymentIntent();
+        intent.setId("pi_1");
+        intent.setClientSecret("pi_1_secret");
+        when(gateway.isConfigured()).thenReturn(true);
+        when(gateway.createPaymentIntent(any(), any())).thenReturn(CompletableFuture.completedFuture(intent));
+    }
+
+    private String stripeKey(String clientKey, MockHttpServletResponse response) {
+        controller.createPaymentIntent(USER, REQUEST, clientKey, response).join();
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        verify(gateway, atLeastOnce()).createPaymentIntent(any(), key.capture());
+        return key.getValue();
+    }
+
+    @Test
+    void attemptWithoutAKeyGetsAFreshOneToRetryWith() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        String firstKey = stripeKey(null, first);
+        String secondKey = stripeKey(null, second);
+
+        String issued = first.getHeader(IdempotencyFilter.HEADER);
+        assertNotNull(issued);
+        assertEquals("user-1:" + issued, firstKey);
+        // Paying the same amount again is a new payment, not a replay of the first
+        assertNotEquals(firstKey, secondKey);
+        // Retrying with the issued key reaches Stripe with the same key
+        assertEquals(firstKey, stripeKey(issued, new MockHttpServletResponse()));
+    }
+}
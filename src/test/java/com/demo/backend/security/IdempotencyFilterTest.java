@@ -0,0 +1,232 @@
+package com.demo.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IdempotencyFilter filter = new IdempotencyFilter(
+            new IdempotencyStore(100, 10, Duration.ofMinutes(5), registry),
+            List.of("/api/tasks/*/bids"), 1024, registry);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void authenticate() {
+        AuthenticatedUser user = new AuthenticatedUser(7L, "bob", "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest bid(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/tasks/1/bids");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private FilterChain handler(int status) {
+        return (req, res) -> {
+            String body = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            int n = executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(status);
+            res.setContentType("application/json");
+            res.getWriter().write("{\"n\":" + n + ",\"echo\":" + body + "}");
+        };
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void retryIsAnsweredFromStoreWithoutRunningHandler() throws Exception {
+        MockHttpServletResponse first = send(bid("k1", "{\"amount\":10}"), handler(201));
+        MockHttpServletResponse retry = send(bid("k1", "{\"amount\":10}"), handler(201));
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("{\"n\":1,\"echo\":{\"amount\":10}}", retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void nonBlockingReaderIsHandedTheWholeCachedBody() throws Exception {
+        List<String> events = new ArrayList<>();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        send(bid("k9", "{\"amount\":10}"), (req, res) -> {
+            ServletInputStream in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data");
+                    byte[] buffer = new byte[4];
+                    int n;
+                    while (in.isReady() && (n = in.read(buffer)) != -1) read.write(buffer, 0, n);
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+            ((HttpServletResponse) res).setStatus(201);
+        });
+
+        assertEquals(List.of("data", "done"), events);
+        assertEquals("{\"amount\":10}", read.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() throws Exception {
+        send(bid("k2", "{\"amount\":10}"), handler(201));
+        MockHttpServletResponse other = send(bid("k2", "{\"amount\":99}"), handler(201));
+
+        assertEquals(422, other.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void serverErrorsAreNotStored() throws Exception {
+        send(bid("k3", "{\"amount\":10}"), handler(500));
+        MockHttpServletResponse retry = send(bid("k3", "{\"amount\":10}"), handler(201));
+
+        assertEquals(201, retry.getStatus());
+        assertEquals(2, executions.get());
+        assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void keysAreScopedPerUser() throws Exception {
+        send(bid("k4", "{\"amount\":10}"), handler(201));
+        AuthenticatedUser other = new AuthenticatedUser(8L, "carol", "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(other, null, other.getAuthorities()));
+
+        send(bid("k4", "{\"amount\":10}"), handler(201));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void duplicateWhileFirstIsRunningIsRejectedImmediately() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (req, res) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            handler(201).doFilter(req, res);
+        };
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.getContext().setAuthentication(auth);
+            try {
+                return send(bid("k5", "{\"amount\":10}"), slow);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse duplicate = send(bid("k5", "{\"amount\":10}"), handler(201));
+        assertEquals(409, duplicate.getStatus());
+        assertEquals("1", duplicate.getHeader("Retry-After"));
+
+        release.countDown();
+        MockHttpServletResponse firstResponse = first.get(5, TimeUnit.SECONDS);
+        MockHttpServletResponse retry = send(bid("k5", "{\"amount\":10}"), handler(201));
+        assertEquals(firstResponse.getContentAsString(), retry.getContentAsString());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void asyncHandlerResultIsStoredOnTheAsyncDispatch() throws Exception {
+        MockHttpServletRequest request = bid("k7", "{\"amount\":10}");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // Like a controller returning a CompletableFuture: start async and return without a body
+        filter.doFilter(request, response, (req, res) -> req.startAsync(req, res));
+        assertTrue(request.isAsyncStarted());
+
+        assertEquals(409, send(bid("k7", "{\"amount\":10}"), handler(201)).getStatus());
+
+        // The future completes and the container dispatches back through the filter chain,
+        // where the result is written; the request body was consumed on the first dispatch
+        MockAsyncContext async = (MockAsyncContext) request.getAsyncContext();
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, async.getResponse(), (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(201);
+            res.getWriter().write("{\"id\":42}");
+        });
+
+        assertEquals("{\"id\":42}", response.getContentAsString());
+        MockHttpServletResponse retry = send(bid("k7", "{\"amount\":10}"), handler(201));
+        assertEquals(201, retry.getStatus());
+        assertEquals(response.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void requestsWithoutKeyOrOutsideConfiguredPathsPassThrough() throws Exception {
+        MockHttpServletRequest noKey = new MockHttpServletRequest("POST", "/api/tasks/1/bids");
+        noKey.setContent("{}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletRequest otherPath = new MockHttpServletRequest("POST", "/api/tasks/1/milestones");
+        otherPath.addHeader(IdempotencyFilter.HEADER, "k6");
+        otherPath.setContent("{}".getBytes(StandardCharsets.UTF_8));
+
+        send(noKey, handler(201));
+        send(bid("k6", "{}"), handler(201));
+        send(otherPath, handler(201));
+        send(otherPath, handler(201));
+
+        assertEquals(4, executions.get());
+    }
+}
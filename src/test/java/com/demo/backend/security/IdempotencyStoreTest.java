@@ -0,0 +1,50 @@
+package com.demo.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private static final byte[] HASH = {1};
+
+    private final IdempotencyStore store = new IdempotencyStore(2, 3, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    private static IdempotencyStore.StoredResponse ok() {
+        return new IdempotencyStore.StoredResponse(201, null, new byte[0]);
+    }
+
+    @Test
+    void inFlightEntriesAreNotEvictedBySizeBound() {
+        IdempotencyStore.Key running = new IdempotencyStore.Key(1, "running");
+        IdempotencyStore.Entry inFlight = store.claim(running, HASH).entry();
+
+        for (int i = 0; i < 20; i++) {
+            IdempotencyStore.Key key = new IdempotencyStore.Key(100 + i, "k");
+            store.complete(key, store.claim(key, HASH).entry(), ok());
+        }
+
+        IdempotencyStore.Claim again = store.claim(running, HASH);
+        assertFalse(again.owner());
+        assertSame(inFlight, again.entry());
+    }
+
+    @Test
+    void keysPerUserAreBoundedAndFreedWhenReleased() {
+        IdempotencyStore.Entry first = null;
+        for (int i = 0; i < 3; i++) {
+            IdempotencyStore.Claim claim = store.claim(new IdempotencyStore.Key(1, "k" + i), HASH);
+            assertTrue(claim.owner());
+            if (i == 0) first = claim.entry();
+        }
+
+        assertTrue(store.claim(new IdempotencyStore.Key(1, "k3"), HASH).rejected());
+        assertTrue(store.claim(new IdempotencyStore.Key(2, "k3"), HASH).owner()); // other users are unaffected
+
+        store.release(new IdempotencyStore.Key(1, "k0"), first);
+        assertTrue(store.claim(new IdempotencyStore.Key(1, "k3"), HASH).owner());
+    }
+}
@@ -0,0 +1,79 @@
+package com.demo.backend.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Time per request through JwtAuthenticationFilter with the verified-token cache against full
+ * signature verification on every request. Runs only with BENCHMARKS=true; prints the median of
+ * several measured rounds after a fixed warm-up.
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARKS", matches = "true")
+class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int REQUESTS_PER_ROUND = 20_000;
+    private static final int DISTINCT_TOKENS = 100;
+
+    private static JwtService jwtService(long verifiedCacheMaxSize) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "c2VjcmV0LXNlY3JldC1zZWNyZXQtc2VjcmV0LXNlY3JldC1zZWNyZXQ=");
+        ReflectionTestUtils.setField(jwtService, "accessExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxSize", verifiedCacheMaxSize);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheTtlSeconds", 300L);
+        jwtService.init();
+        return jwtService;
+    }
+
+    /** Median nanoseconds per request, over requests cycling through a fixed set of users. */
+    private static double nanosPerRequest(JwtService jwtService) throws Exception {
+        TokenAuthenticator authenticator = new TokenAuthenticator(jwtService, mock(UserDetailsService.class));
+        ReflectionTestUtils.setField(authenticator, "selfContainedClaims", true);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(authenticator);
+
+        MockHttpServletRequest[] requests = new MockHttpServletRequest[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            String token = jwtService.generateToken("user" + i + "@example.com", Map.of(JwtService.CLAIM_USER_ID, (long) i,
+                    JwtService.CLAIM_USERNAME, "user" + i, JwtService.CLAIM_ROLE, "CLIENT", JwtService.CLAIM_STATUS, "ACTIVE"));
+            requests[i] = new MockHttpServletRequest("GET", "/api/tasks");
+            requests[i].addHeader("Authorization", "Bearer " + token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+
+        long[] rounds = new long[ROUNDS];
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS_PER_ROUND; i++) {
+                filter.doFilter(requests[i % DISTINCT_TOKENS], response, chain);
+                SecurityContextHolder.clearContext();
+            }
+            if (round >= 0) rounds[round] = System.nanoTime() - start;
+        }
+        Arrays.sort(rounds);
+        return (double) rounds[ROUNDS / 2] / REQUESTS_PER_ROUND;
+    }
+
+    @Test
+    void verifiedTokenCacheAgainstVerifyingEveryRequest() throws Exception {
+        double verifying = nanosPerRequest(jwtService(0));
+        double cached = nanosPerRequest(jwtService(DISTINCT_TOKENS));
+
+        System.out.printf("JwtAuthenticationFilter: %.0f ns/request verifying every token, %.0f ns/request cached (%.1fx)%n",
+                verifying, cached, verifying / cached);
+    }
+}
@@ -0,0 +1,129 @@
+package com.demo.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private final MutableClock clock = new MutableClock();
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService(60_000);
+    }
+
+    private JwtService newService(long accessTtlMs) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "clock", clock);
+        ReflectionTestUtils.setField(service, "secret", "c2VjcmV0LXNlY3JldC1zZWNyZXQtc2VjcmV0LXNlY3JldC1zZWNyZXQ=");
+        ReflectionTestUtils.setField(service, "accessExpirationMs", accessTtlMs);
+        ReflectionTestUtils.setField(service, "refreshExpirationMs", accessTtlMs);
+        ReflectionTestUtils.setField(service, "verifiedCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(service, "verifiedCacheTtlSeconds", 300L);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void repeatedVerificationIsServedFromCache() {
+        String token = jwtService.generateToken("alice@example.com", Map.of());
+        Claims first = jwtService.extractClaims(token);
+
+        // A parser for another key would reject the token, so only the cache can answer now
+        ReflectionTestUtils.setField(jwtService, "parser", Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(new byte[32])).build());
+        Claims second = jwtService.extractClaims(token);
+
+        assertEquals("alice@example.com", second.getSubject());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void callersCannotChangeCachedClaims() {
+        String token = jwtService.generateToken("alice@example.com", Map.of(JwtService.CLAIM_ROLE, "CLIENT"));
+
+        Claims first = jwtService.extractClaims(token);
+        first.put(JwtService.CLAIM_ROLE, "ADMIN");
+        Claims second = jwtService.extractClaims(token);
+        second.setSubject("mallory@example.com");
+
+        assertEquals("CLIENT", second.get(JwtService.CLAIM_ROLE));
+        assertEquals("alice@example.com", jwtService.extractClaims(token).getSubject());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtService.generateToken("alice@example.com", Map.of());
+        jwtService.extractClaims(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtService.extractClaims(tampered));
+    }
+
+    @Test
+    void cachedEntryDoesNotOutliveTokenExpiry() {
+        JwtService shortLived = newService(1_500);
+        String token = shortLived.generateToken("alice@example.com", Map.of());
+        assertNotNull(shortLived.extractClaims(token));
+
+        clock.advance(Duration.ofSeconds(2));
+
+        assertThrows(ExpiredJwtException.class, () -> shortLived.extractClaims(token));
+    }
+
+    @Test
+    void accessAndRefreshTokensAreTypedApart() {
+        Claims access = jwtService.extractClaims(jwtService.generateToken("alice@example.com", Map.of()));
+        Claims refresh = jwtService.extractClaims(jwtService.generateRefreshToken("alice@example.com", Map.of()));
+
+        assertTrue(JwtService.isAccessToken(access));
+        assertFalse(JwtService.isRefreshToken(access));
+        assertTrue(JwtService.isRefreshToken(refresh));
+        assertFalse(JwtService.isAccessToken(refresh));
+
+        // Issued before the type claim: only access tokens carried the user claims
+        assertTrue(JwtService.isAccessToken(Jwts.claims(Map.of(JwtService.CLAIM_ROLE, "CLIENT"))));
+        assertTrue(JwtService.isRefreshToken(Jwts.claims().setSubject("alice@example.com")));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
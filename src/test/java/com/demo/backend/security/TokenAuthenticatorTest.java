@@ -0,0 +1,46 @@
+package com.demo.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenAuthenticatorTest {
+
+    private final JwtService jwtService = new JwtService();
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final TokenAuthenticator authenticator = new TokenAuthenticator(jwtService, userDetailsService);
+
+    TokenAuthenticatorTest() {
+        ReflectionTestUtils.setField(jwtService, "secret", "c2VjcmV0LXNlY3JldC1zZWNyZXQtc2VjcmV0LXNlY3JldC1zZWNyZXQ=");
+        ReflectionTestUtils.setField(jwtService, "accessExpirationMs", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpirationMs", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheTtlSeconds", 300L);
+        jwtService.init();
+        ReflectionTestUtils.setField(authenticator, "selfContainedClaims", true);
+    }
+
+    @Test
+    void accessTokenAuthenticatesFromItsClaims() {
+        String token = jwtService.generateToken("alice@example.com", Map.of(JwtService.CLAIM_USER_ID, 7L,
+                JwtService.CLAIM_USERNAME, "alice", JwtService.CLAIM_ROLE, "CLIENT", JwtService.CLAIM_STATUS, "ACTIVE"));
+
+        var authentication = authenticator.authenticate(token);
+
+        assertEquals(7L, ((AuthenticatedUser) authentication.getPrincipal()).getId());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void refreshTokenIsNotABearerToken() {
+        String token = jwtService.generateRefreshToken("alice@example.com", Map.of());
+
+        assertNull(authenticator.authenticate(token));
+        verifyNoInteractions(userDetailsService);
+    }
+}
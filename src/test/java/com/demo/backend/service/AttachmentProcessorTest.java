@@ -0,0 +1,80 @@
+package com.demo.backend.service;
+
+import com.demo.backend.storage.StorageBackend;
+import com.demo.backend.storage.StorageKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class AttachmentProcessorTest {
+
+    private static final String HASH = "ab".repeat(32);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final StorageBackend storage = mock(StorageBackend.class);
+    private final AttachmentProcessor processor = new AttachmentProcessor(jdbcTemplate, storage, new SimpleMeterRegistry(),
+            1, 5, Duration.ofSeconds(30), Duration.ofMinutes(5), 64, 36);
+
+    private static RowMapper<Object> anyRowMapper() {
+        return any();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // One claimed job for an image blob
+        when(jdbcTemplate.query(startsWith("UPDATE attachment_jobs SET status = 'RUNNING'"), anyRowMapper(), any(), any(), any()))
+                .thenAnswer(inv -> {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getLong("id")).thenReturn(1L);
+                    when(rs.getString("blob_hash")).thenReturn(HASH);
+                    when(rs.getInt("attempts")).thenReturn(1);
+                    RowMapper<Object> mapper = inv.getArgument(1);
+                    return List.of(mapper.mapRow(rs, 0));
+                });
+        when(jdbcTemplate.queryForList(startsWith("SELECT object_key"), eq(HASH)))
+                .thenReturn(List.of(Map.of("object_key", StorageKeys.blobKey(HASH), "content_type", "image/png")));
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB), "png", png);
+        when(storage.open(StorageKeys.blobKey(HASH))).thenReturn(new ByteArrayInputStream(png.toByteArray()));
+    }
+
+    private void process(int blobRowsUpdated) throws Exception {
+        when(jdbcTemplate.update(startsWith("UPDATE blobs"), any(), any(), any(), any(), any())).thenReturn(blobRowsUpdated);
+        processor.poll();
+        processor.destroy();
+        verify(storage).store(eq(StorageKeys.thumbnailKey(HASH)), any(), anyLong(), eq("image/jpeg"));
+    }
+
+    @Test
+    void thumbnailOfABlobCollectedMeanwhileIsDeleted() throws Exception {
+        process(0);
+
+        verify(storage).delete(StorageKeys.thumbnailKey(HASH));
+        verify(jdbcTemplate).update(startsWith("UPDATE attachment_jobs SET status = 'DONE'"), eq(1L));
+    }
+
+    @Test
+    void thumbnailOfALiveBlobIsKept() throws Exception {
+        process(1);
+
+        verify(storage, never()).delete(any());
+        verify(jdbcTemplate).update(startsWith("UPDATE attachment_jobs SET status = 'DONE'"), eq(1L));
+    }
+}
@@ -0,0 +1,131 @@
+package com.demo.backend.service;
+
+import com.demo.backend.repository.BidRepository;
+import com.demo.backend.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clients accepting bids on one task in parallel, through the real repositories and transaction
+ * manager.
+ */
+@EnabledIfEnvironmentVariable(named = PostgresTestSchema.DB_URL_ENV, matches = ".+")
+class BidAcceptanceConcurrencyTest {
+
+    private static final int BIDS = 16;
+
+    private PostgresTestSchema db;
+    private EntityManagerFactory entityManagerFactory;
+    private BidAcceptanceService service;
+    private long owner;
+    private long taskId;
+    private final List<Long> bidIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        db = new PostgresTestSchema("bid_acceptance_test", BIDS);
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(db.dataSource);
+        factoryBean.setPackagesToScan("com.demo.backend.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.physical_naming_strategy", new CamelCaseToUnderscoresNamingStrategy()));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+
+        JpaRepositoryFactory repositories = new JpaRepositoryFactory(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        service = new BidAcceptanceService(repositories.getRepository(BidRepository.class),
+                repositories.getRepository(TaskRepository.class),
+                new TransactionTemplate(new JpaTransactionManager(entityManagerFactory)), new SimpleMeterRegistry());
+
+        owner = db.user("client");
+        taskId = db.task(owner, "OPEN");
+        for (int i = 0; i < BIDS; i++) {
+            bidIds.add(db.jdbc.queryForObject("INSERT INTO bids (task_id, freelancer_id, amount) VALUES (?, ?, ?) RETURNING id",
+                    Long.class, taskId, db.user("freelancer" + i), new BigDecimal(100 + i)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.close();
+        db.close();
+    }
+
+    private Map<BidAcceptanceService.Outcome, Long> acceptInParallel(List<Long> bids) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BidAcceptanceService.Outcome>> futures = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(bids.size());
+        try {
+            for (long bidId : bids) {
+                futures.add(pool.submit((Callable<BidAcceptanceService.Outcome>) () -> {
+                    start.await();
+                    return service.accept(bidId, owner);
+                }));
+            }
+            start.countDown();
+            List<BidAcceptanceService.Outcome> outcomes = new ArrayList<>();
+            for (Future<BidAcceptanceService.Outcome> future : futures) {
+                outcomes.add(future.get());
+            }
+            return outcomes.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void assertSingleWinner() {
+        assertEquals("IN_PROGRESS", db.jdbc.queryForObject("SELECT status FROM tasks WHERE id = ?", String.class, taskId));
+        assertEquals(1, db.jdbc.queryForObject(
+                "SELECT count(*) FROM bids WHERE task_id = ? AND status = 'ACCEPTED'", Integer.class, taskId));
+        assertEquals(BIDS - 1, db.jdbc.queryForObject(
+                "SELECT count(*) FROM bids WHERE task_id = ? AND status = 'REJECTED'", Integer.class, taskId));
+        assertEquals(1, db.jdbc.queryForObject("SELECT bid_count FROM task_bid_stats WHERE task_id = ?", Integer.class, taskId));
+    }
+
+    @Test
+    void acceptingDifferentBidsAtOnceHasExactlyOneWinner() throws Exception {
+        Map<BidAcceptanceService.Outcome, Long> outcomes = acceptInParallel(bidIds);
+
+        assertEquals(Map.of(BidAcceptanceService.Outcome.ACCEPTED, 1L,
+                BidAcceptanceService.Outcome.TASK_NOT_OPEN, (long) BIDS - 1), outcomes);
+        assertSingleWinner();
+    }
+
+    @Test
+    void acceptingTheSameBidAtOnceAcceptsItOnce() throws Exception {
+        long bidId = bidIds.get(0);
+        Map<BidAcceptanceService.Outcome, Long> outcomes = acceptInParallel(List.of(bidId, bidId, bidId, bidId));
+
+        assertEquals(Map.of(BidAcceptanceService.Outcome.ACCEPTED, 1L,
+                BidAcceptanceService.Outcome.TASK_NOT_OPEN, 3L), outcomes);
+        assertSingleWinner();
+        assertEquals("ACCEPTED", db.jdbc.queryForObject("SELECT status FROM bids WHERE id = ?", String.class, bidId));
+    }
+}
@@ -0,0 +1,79 @@
+package com.demo.backend.service;
+
+import com.demo.backend.model.Bid;
+import com.demo.backend.model.Task;
+import com.demo.backend.model.User;
+import com.demo.backend.repository.BidRepository;
+import com.demo.backend.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BidAcceptanceServiceTest {
+
+    private static final long OWNER = 1L;
+
+    private final BidRepository bidRepository = mock(BidRepository.class);
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final BidAcceptanceService service = new BidAcceptanceService(bidRepository, taskRepository,
+            new TransactionTemplate(transactionManager), new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        Task task = Task.builder().id(10L).status("OPEN").createdBy(User.builder().id(OWNER).build()).build();
+        when(bidRepository.findByIdWithTaskAndCreator(5L))
+                .thenReturn(Optional.of(Bid.builder().id(5L).task(task).status("PENDING").build()));
+    }
+
+    @Test
+    void winnerMovesTaskAndBidAndRejectsTheRest() {
+        when(taskRepository.startIfOpen(10L)).thenReturn(1);
+        when(bidRepository.acceptIfPending(5L)).thenReturn(1);
+
+        assertEquals(BidAcceptanceService.Outcome.ACCEPTED, service.accept(5L, OWNER));
+
+        verify(bidRepository).rejectOtherBids(10L, 5L);
+        verify(transactionManager).commit(argThat(status -> !status.isRollbackOnly()));
+    }
+
+    @Test
+    void taskAlreadyTakenIsAConflictWithoutTouchingTheBid() {
+        when(taskRepository.startIfOpen(10L)).thenReturn(0);
+
+        assertEquals(BidAcceptanceService.Outcome.TASK_NOT_OPEN, service.accept(5L, OWNER));
+
+        verify(bidRepository, never()).acceptIfPending(anyLong());
+        verify(bidRepository, never()).rejectOtherBids(anyLong(), anyLong());
+    }
+
+    @Test
+    void bidNoLongerPendingRollsBackTheTaskTransition() {
+        when(taskRepository.startIfOpen(10L)).thenReturn(1);
+        when(bidRepository.acceptIfPending(5L)).thenReturn(0);
+
+        assertEquals(BidAcceptanceService.Outcome.BID_NOT_PENDING, service.accept(5L, OWNER));
+
+        verify(bidRepository, never()).rejectOtherBids(anyLong(), anyLong());
+        // TransactionTemplate hands a rollback-only status to commit, which the manager rolls back
+        verify(transactionManager).commit(argThat(TransactionStatus::isRollbackOnly));
+    }
+
+    @Test
+    void onlyTheTaskOwnerMayAccept() {
+        assertEquals(BidAcceptanceService.Outcome.FORBIDDEN, service.accept(5L, 2L));
+        assertEquals(BidAcceptanceService.Outcome.BID_NOT_FOUND, service.accept(6L, OWNER));
+        verifyNoInteractions(taskRepository, transactionManager);
+    }
+}
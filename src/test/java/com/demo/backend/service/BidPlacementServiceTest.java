@@ -0,0 +1,140 @@
+package com.demo.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many freelancers bidding on one task in parallel, each sending the same bid twice, against the
+ * migrated schema so the bid triggers and version columns are exercised too.
+ */
+@EnabledIfEnvironmentVariable(named = PostgresTestSchema.DB_URL_ENV, matches = ".+")
+class BidPlacementServiceTest {
+
+    private static final String SCHEMA = "bid_placement_test";
+    private static final int FREELANCERS = 200;
+    private static final int THREADS = 32;
+
+    private PostgresTestSchema db;
+    private BidPlacementService service;
+    private long openTaskId;
+    private long closedTaskId;
+
+    @BeforeEach
+    void setUp() {
+        db = new PostgresTestSchema(SCHEMA, THREADS);
+        long owner = db.user("client");
+        db.jdbc.update("INSERT INTO users (username, email, password_hash, role) " +
+                "SELECT 'freelancer' || g, 'freelancer' || g || '@example.com', 'x', 'FREELANCER' " +
+                "FROM generate_series(1, ?) g", FREELANCERS);
+        openTaskId = db.task(owner, "OPEN");
+        closedTaskId = db.task(owner, "CLOSED");
+        service = new BidPlacementService(db.jdbc, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+    }
+
+    @Test
+    void parallelDuplicateBidsPlaceExactlyOneBidPerFreelancer() throws Exception {
+        List<Long> freelancers = db.jdbc.queryForList(
+                "SELECT id FROM users WHERE username LIKE 'freelancer%' ORDER BY id", Long.class);
+        Map<BidPlacementService.Outcome, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int attempt = 0; attempt < 2; attempt++) {
+                for (long freelancerId : freelancers) {
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        var placement = service.place(openTaskId, freelancerId, new BigDecimal("150.00"));
+                        outcomes.computeIfAbsent(placement.outcome(), o -> new AtomicInteger()).incrementAndGet();
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(); // any constraint violation would surface here
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(FREELANCERS, outcomes.get(BidPlacementService.Outcome.PLACED).get());
+        assertEquals(FREELANCERS, outcomes.get(BidPlacementService.Outcome.ALREADY_BID).get());
+        assertEquals(FREELANCERS, db.jdbc.queryForObject("SELECT count(*) FROM bids WHERE task_id = ?", Integer.class, openTaskId));
+        // The V12 triggers counted every placed bid once, however the inserts interleaved
+        assertEquals(FREELANCERS, db.jdbc.queryForObject(
+                "SELECT bid_count FROM task_bid_stats WHERE task_id = ?", Integer.class, openTaskId));
+    }
+
+    @Test
+    void placedBidCarriesTaskTitleAndFreelancerEmail() {
+        long freelancerId = db.jdbc.queryForObject("SELECT id FROM users WHERE username = 'freelancer1'", Long.class);
+
+        var placement = service.place(openTaskId, freelancerId, new BigDecimal("99.50"));
+
+        assertEquals(BidPlacementService.Outcome.PLACED, placement.outcome());
+        assertEquals("Task", placement.bid().getTaskTitle());
+        assertEquals("freelancer1@example.com", placement.bid().getFreelancerEmail());
+        assertEquals("PENDING", placement.bid().getStatus());
+        // Columns added by later migrations get their defaults on this insert path too
+        assertEquals(0L, db.jdbc.queryForObject("SELECT version FROM bids WHERE id = ?", Long.class, placement.bid().getId()));
+    }
+
+    @Test
+    void missingOrClosedTaskIsReportedWithoutInserting() {
+        long freelancerId = db.jdbc.queryForObject("SELECT id FROM users WHERE username = 'freelancer1'", Long.class);
+
+        assertEquals(BidPlacementService.Outcome.TASK_NOT_FOUND,
+                service.place(Long.MAX_VALUE, freelancerId, BigDecimal.TEN).outcome());
+        assertEquals(BidPlacementService.Outcome.TASK_NOT_OPEN,
+                service.place(closedTaskId, freelancerId, BigDecimal.TEN).outcome());
+        assertEquals(0, db.jdbc.queryForObject("SELECT count(*) FROM bids", Integer.class));
+    }
+
+    @Test
+    void bidArrivingDuringAnAcceptanceWaitsAndSeesTheTaskTaken() throws Exception {
+        long freelancerId = db.jdbc.queryForObject("SELECT id FROM users WHERE username = 'freelancer1'", Long.class);
+
+        try (Connection accepting = db.dataSource.getConnection()) {
+            accepting.setAutoCommit(false);
+            try (Statement statement = accepting.createStatement()) {
+                // What startIfOpen does, left uncommitted
+                statement.executeUpdate("UPDATE tasks SET status = 'IN_PROGRESS' WHERE id = " + openTaskId);
+            }
+            CompletableFuture<BidPlacementService.Placement> bid = CompletableFuture.supplyAsync(
+                    () -> service.place(openTaskId, freelancerId, BigDecimal.TEN));
+            Thread.sleep(300);
+            assertFalse(bid.isDone());
+
+            accepting.commit();
+            assertEquals(BidPlacementService.Outcome.TASK_NOT_OPEN, bid.get(5, TimeUnit.SECONDS).outcome());
+        }
+        assertEquals(0, db.jdbc.queryForObject("SELECT count(*) FROM bids", Integer.class));
+    }
+}
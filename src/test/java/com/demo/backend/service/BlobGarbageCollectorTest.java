@@ -0,0 +1,106 @@
+package com.demo.backend.service;
+
+import com.demo.backend.storage.LocalStorageBackend;
+import com.demo.backend.storage.StorageKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * An upload of the same content racing with the collector.
+ */
+@EnabledIfEnvironmentVariable(named = PostgresTestSchema.DB_URL_ENV, matches = ".+")
+class BlobGarbageCollectorTest {
+
+    private static final byte[] CONTENT = "same bytes".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path root;
+
+    private PostgresTestSchema db;
+    private LocalStorageBackend storage;
+    private AttachmentService attachments;
+    private BlobGarbageCollector collector;
+    private long userId;
+
+    private final CountDownLatch deleting = new CountDownLatch(1);
+    private final CountDownLatch resume = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        db = new PostgresTestSchema("blob_gc_test", 4);
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(db.dataSource));
+        storage = spy(new LocalStorageBackend(root.resolve("files").toString(), root.resolve("parts").toString(), 1024));
+        // Pause the collector between its storage delete and the commit
+        doAnswer(inv -> {
+            deleting.countDown();
+            assertTrue(resume.await(5, TimeUnit.SECONDS));
+            return inv.callRealMethod();
+        }).when(storage).delete(StorageKeys.blobKey(sha256()));
+        attachments = new AttachmentService(storage, db.jdbc, tx, new SimpleMeterRegistry(), 1024);
+        collector = new BlobGarbageCollector(db.jdbc, tx, storage, Duration.ZERO, 100);
+        userId = db.user("alice");
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+    }
+
+    private String sha256() throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT));
+    }
+
+    private AttachmentService.StoredAttachment upload() throws Exception {
+        return attachments.store(new ByteArrayResource(CONTENT), CONTENT.length, "a.txt", "text/plain", userId, null, null);
+    }
+
+    @Test
+    void uploadRacingWithCollectionKeepsItsBytes() throws Exception {
+        AttachmentService.StoredAttachment first = upload();
+        assertTrue(attachments.delete(first.id(), userId));
+        Thread.sleep(20); // past the zero grace period
+
+        CompletableFuture<Void> collecting = CompletableFuture.runAsync(collector::collect);
+        assertTrue(deleting.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<AttachmentService.StoredAttachment> reupload = CompletableFuture.supplyAsync(() -> {
+            try {
+                return upload();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        // The collector's deleted row is still locked, so the upload waits on its foreign key check
+        Thread.sleep(300);
+        assertFalse(reupload.isDone());
+
+        resume.countDown();
+        collecting.get(5, TimeUnit.SECONDS);
+        AttachmentService.StoredAttachment second = reupload.get(5, TimeUnit.SECONDS);
+
+        assertFalse(second.deduplicated());
+        assertEquals(1, db.jdbc.queryForObject("SELECT ref_count FROM blobs WHERE hash = ?", Integer.class, second.hash()));
+        assertArrayEquals(CONTENT, Files.readAllBytes(root.resolve("files").resolve(second.key())));
+    }
+}
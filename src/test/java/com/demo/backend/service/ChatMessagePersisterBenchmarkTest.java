@@ -0,0 +1,130 @@
+package com.demo.backend.service;
+
+import com.demo.backend.repository.MessageRepository;
+import com.demo.backend.repository.TaskRepository;
+import com.demo.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rows per second stored by the synchronous persister against the write-behind one, with many
+ * senders at once. Write-behind is timed until stop() has drained its queue, so both figures
+ * count committed rows. Runs only with BENCHMARKS=true.
+ */
+@EnabledIfEnvironmentVariable(named = PostgresTestSchema.DB_URL_ENV, matches = ".+")
+@EnabledIfEnvironmentVariable(named = "BENCHMARKS", matches = "true")
+class ChatMessagePersisterBenchmarkTest {
+
+    private static final int SENDERS = 16;
+    private static final int MESSAGES_PER_SENDER = 2_000;
+
+    private PostgresTestSchema db;
+    private EntityManagerFactory entityManagerFactory;
+    private long userId;
+    private long taskId;
+
+    @BeforeEach
+    void setUp() {
+        db = new PostgresTestSchema("chat_persister_benchmark", SENDERS + 2);
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(db.dataSource);
+        factoryBean.setPackagesToScan("com.demo.backend.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.physical_naming_strategy", new CamelCaseToUnderscoresNamingStrategy(),
+                "hibernate.jdbc.batch_size", 50, "hibernate.order_inserts", true));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+
+        userId = db.user("alice");
+        taskId = db.task(userId, "OPEN");
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.close();
+        db.close();
+    }
+
+    /** Sends every message from {@code SENDERS} threads at once and returns the elapsed nanoseconds. */
+    private long send(ChatMessagePersister persister) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(SENDERS);
+        try {
+            for (int s = 0; s < SENDERS; s++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < MESSAGES_PER_SENDER; i++) {
+                        persister.persist(taskId, userId, "alice", "message " + i);
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) future.get();
+            return System.nanoTime() - begin;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private long synchronousNanos() throws Exception {
+        JpaRepositoryFactory repositories = new JpaRepositoryFactory(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        SynchronousChatMessagePersister persister = new SynchronousChatMessagePersister(
+                repositories.getRepository(MessageRepository.class),
+                repositories.getRepository(TaskRepository.class),
+                repositories.getRepository(UserRepository.class));
+        // What the @Transactional proxy would do around each call
+        TransactionTemplate tx = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        return send((task, sender, username, content) -> tx.execute(status -> persister.persist(task, sender, username, content)));
+    }
+
+    private long writeBehindNanos() throws Exception {
+        WriteBehindChatMessagePersister persister = new WriteBehindChatMessagePersister(
+                db.jdbc, new SimpleMeterRegistry(), 10_000, 200, 50, 5_000, 3);
+        persister.start();
+        long begin = System.nanoTime();
+        send(persister);
+        persister.stop();
+        return System.nanoTime() - begin;
+    }
+
+    private double rowsPerSecond(long nanos) {
+        return SENDERS * MESSAGES_PER_SENDER / (nanos / 1e9);
+    }
+
+    @Test
+    void writeBehindAgainstSynchronousInserts() throws Exception {
+        double synchronous = rowsPerSecond(synchronousNanos());
+        double writeBehind = rowsPerSecond(writeBehindNanos());
+
+        assertEquals(2L * SENDERS * MESSAGES_PER_SENDER,
+                db.jdbc.queryForObject("SELECT count(*) FROM messages WHERE task_id = ?", Long.class, taskId));
+        System.out.printf("Chat persistence: %.0f rows/s synchronous, %.0f rows/s write-behind (%.1fx)%n",
+                synchronous, writeBehind, writeBehind / synchronous);
+    }
+}
@@ -0,0 +1,122 @@
+package com.demo.backend.service;
+
+import com.demo.backend.model.EmailOutbox;
+import com.demo.backend.repository.EmailOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutboxDispatcher dispatcher(int smtpPort) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+        return new EmailOutboxDispatcher(mock(EmailOutboxRepository.class), mailSender, mock(TransactionTemplate.class),
+                new SimpleMeterRegistry(), "noreply@example.com", 50, 3, Duration.ofSeconds(10), Duration.ofHours(1), Duration.ofMinutes(5));
+    }
+
+    private static EmailOutbox pending(String to) {
+        return EmailOutbox.builder().id(1L).recipient(to).subject("Code").body("123456")
+                .status("PENDING").attempts(0).nextAttemptAt(OffsetDateTime.now()).build();
+    }
+
+    @Test
+    void deliversBatchAndMarksEntriesSent() throws Exception {
+        List<EmailOutbox> batch = List.of(pending("a@example.com"), pending("b@example.com"));
+
+        dispatcher(ServerSetupTest.SMTP.getPort()).deliver(batch);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertEquals("Code", received[0].getSubject());
+        assertTrue(batch.stream().allMatch(e -> "SENT".equals(e.getStatus()) && e.getSentAt() != null));
+    }
+
+    @Test
+    void sendsOutsideTheClaimingTransactionAndStoresOutcomesAfterwards() throws Exception {
+        EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+        TransactionTemplate transactions = mock(TransactionTemplate.class);
+        AtomicBoolean inTransaction = new AtomicBoolean();
+        when(transactions.execute(any())).thenAnswer(inv -> {
+            inTransaction.set(true);
+            try {
+                return inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+        doAnswer(inv -> {
+            inTransaction.set(true);
+            try {
+                inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            } finally {
+                inTransaction.set(false);
+            }
+            return null;
+        }).when(transactions).executeWithoutResult(any());
+
+        EmailOutbox entry = pending("a@example.com");
+        when(repository.claimDue(50)).thenReturn(List.of(entry));
+        AtomicBoolean sentInTransaction = new AtomicBoolean(true);
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl() {
+            @Override
+            public void send(SimpleMailMessage... messages) {
+                sentInTransaction.set(inTransaction.get());
+                assertNotNull(entry.getLockedUntil()); // leased while it is being sent
+                super.send(messages);
+            }
+        };
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        EmailOutboxDispatcher dispatcher = new EmailOutboxDispatcher(repository, mailSender, transactions,
+                new SimpleMeterRegistry(), "noreply@example.com", 50, 3, Duration.ofSeconds(10), Duration.ofHours(1), Duration.ofMinutes(5));
+
+        dispatcher.dispatchDue();
+
+        assertFalse(sentInTransaction.get());
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        verify(repository).saveAll(List.of(entry));
+        assertEquals("SENT", entry.getStatus());
+        assertNull(entry.getLockedUntil());
+    }
+
+    @Test
+    void unreachableServerSchedulesRetryWithBackoffThenGivesUp() {
+        EmailOutbox entry = pending("a@example.com");
+        EmailOutboxDispatcher unreachable = dispatcher(1);
+
+        unreachable.deliver(List.of(entry));
+        assertEquals("PENDING", entry.getStatus());
+        assertEquals(1, entry.getAttempts());
+        assertTrue(entry.getNextAttemptAt().isAfter(OffsetDateTime.now().plusSeconds(5)));
+
+        unreachable.deliver(List.of(entry));
+        assertTrue(entry.getNextAttemptAt().isAfter(OffsetDateTime.now().plusSeconds(15)));
+
+        unreachable.deliver(List.of(entry));
+        assertEquals("FAILED", entry.getStatus());
+        assertNotNull(entry.getLastError());
+    }
+}
@@ -0,0 +1,82 @@
+package com.demo.backend.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal local stand-in for the Stripe API: answers {@code POST /v1/payment_intents} after a
+ * configurable delay with either a payment intent or an error status, and counts the requests.
+ * The Idempotency-Key of the last request is kept.
+ */
+class FakeStripeServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long delayMs;
+    private volatile int status = 200;
+    private volatile String lastIdempotencyKey;
+
+    FakeStripeServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/payment_intents", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void delayMs(long delayMs) {
+        this.delayMs = delayMs;
+    }
+
+    void status(int status) {
+        this.status = status;
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    String lastIdempotencyKey() {
+        return lastIdempotencyKey;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int n = requests.incrementAndGet();
+        lastIdempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        exchange.getRequestBody().readAllBytes();
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        int code = status;
+        String body = code == 200
+                ? "{\"id\":\"pi_fake_" + n + "\",\"object\":\"payment_intent\",\"amount\":5000,\"currency\":\"usd\","
+                + "\"client_secret\":\"pi_fake_" + n + "_secret\",\"status\":\"requires_payment_method\"}"
+                : "{\"error\":{\"type\":\"api_error\",\"message\":\"fake failure\"}}";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(code, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (IOException ignored) {
+            // client gave up (read timeout)
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.demo.backend.service;
+
+import com.demo.backend.config.StripeConfig;
+import com.demo.backend.exceptions.PaymentProviderUnavailableException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.InvalidRequestException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.param.PaymentIntentCreateParams;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentGatewayTest {
+
+    private static final PaymentIntentCreateParams PARAMS =
+            PaymentIntentCreateParams.builder().setAmount(5000L).setCurrency("usd").build();
+
+    private final FakeStripeServer stripe = newServer();
+    private PaymentGateway gateway;
+
+    @AfterEach
+    void tearDown() {
+        if (gateway != null) gateway.destroy();
+        stripe.close();
+    }
+
+    private static FakeStripeServer newServer() {
+        try {
+            return new FakeStripeServer();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private PaymentGateway gateway(int maxConcurrent, Duration callTimeout, int failureThreshold) {
+        var client = new StripeConfig().stripeClient("sk_test_fake", stripe.baseUrl(), 1000, 5000, 0);
+        gateway = new PaymentGateway(client, new SimpleMeterRegistry(), "sk_test_fake",
+                maxConcurrent, callTimeout, failureThreshold, Duration.ofMinutes(1));
+        return gateway;
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) {
+        CompletionException ex = assertThrows(CompletionException.class, future::join);
+        return ex.getCause();
+    }
+
+    @Test
+    void createsPaymentIntentThroughSharedClient() {
+        PaymentIntent intent = gateway(5, Duration.ofSeconds(5), 3).createPaymentIntent(PARAMS, "user-7:abc").join();
+
+        assertEquals("pi_fake_1", intent.getId());
+        assertEquals("pi_fake_1_secret", intent.getClientSecret());
+        assertEquals("user-7:abc", stripe.lastIdempotencyKey());
+    }
+
+    @Test
+    void slowProviderTimesOutWithRetryAfter() {
+        stripe.delayMs(2000);
+        long start = System.nanoTime();
+
+        Throwable error = failure(gateway(5, Duration.ofMillis(200), 3).createPaymentIntent(PARAMS, "key-1"));
+
+        assertInstanceOf(PaymentProviderUnavailableException.class, error);
+        assertTrue(((PaymentProviderUnavailableException) error).getRetryAfterSeconds() > 0);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1500, "caller waited for the slow call");
+    }
+
+    @Test
+    void serverErrorsOpenCircuitAndLaterCallsFailFast() {
+        stripe.status(500);
+        PaymentGateway gateway = gateway(5, Duration.ofSeconds(5), 2);
+
+        assertInstanceOf(ApiException.class, failure(gateway.createPaymentIntent(PARAMS, "key-1")));
+        assertInstanceOf(ApiException.class, failure(gateway.createPaymentIntent(PARAMS, "key-1")));
+        assertEquals(CircuitBreaker.State.OPEN, gateway.circuitBreaker().state());
+
+        Throwable error = failure(gateway.createPaymentIntent(PARAMS, "key-1"));
+        assertInstanceOf(PaymentProviderUnavailableException.class, error);
+        assertEquals(2, stripe.requests(), "open circuit must not reach the provider");
+    }
+
+    @Test
+    void clientErrorsNeitherTripNorResetTheCircuit() {
+        PaymentGateway gateway = gateway(5, Duration.ofSeconds(5), 2);
+
+        stripe.status(500);
+        assertInstanceOf(ApiException.class, failure(gateway.createPaymentIntent(PARAMS, "key-1")));
+        stripe.status(400);
+        assertInstanceOf(InvalidRequestException.class, failure(gateway.createPaymentIntent(PARAMS, "key-2")));
+        failure(gateway.createPaymentIntent(PARAMS, "key-3"));
+        assertEquals(CircuitBreaker.State.CLOSED, gateway.circuitBreaker().state());
+
+        stripe.status(500);
+        failure(gateway.createPaymentIntent(PARAMS, "key-4"));
+        assertEquals(CircuitBreaker.State.OPEN, gateway.circuitBreaker().state());
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondConcurrencyLimit() {
+        stripe.delayMs(500);
+        PaymentGateway gateway = gateway(1, Duration.ofSeconds(5), 3);
+
+        CompletableFuture<PaymentIntent> first = gateway.createPaymentIntent(PARAMS, "key-1");
+        Throwable rejected = failure(gateway.createPaymentIntent(PARAMS, "key-1"));
+
+        assertInstanceOf(PaymentProviderUnavailableException.class, rejected);
+        assertNotNull(first.join().getId());
+        assertNotNull(gateway.createPaymentIntent(PARAMS, "key-1").join().getId());
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.backend.service;
+
+import com.demo.backend.dto.response.MessageDto;
+import com.demo.backend.repository.MessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two fan-out nodes sharing one Postgres.
+ */
+@EnabledIfEnvironmentVariable(named = PostgresTestSchema.DB_URL_ENV, matches = ".+")
+class PostgresChatFanoutTest {
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final Node nodeA = new Node();
+    private final Node nodeB = new Node();
+
+    private class Node {
+        final BlockingQueue<Message<?>> delivered = new LinkedBlockingQueue<>();
+        final PostgresChatFanout fanout;
+
+        Node() {
+            DataSourceProperties props = PostgresTestSchema.connection();
+            JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                    props.getUrl(), props.getUsername(), props.getPassword()));
+            SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> delivered.add(message));
+            fanout = new PostgresChatFanout(template, jdbc, messageRepository, new ObjectMapper(), props,
+                    new SimpleMeterRegistry(), "chat_fanout_it", 100, 200);
+            fanout.start();
+        }
+    }
+
+    @AfterEach
+    void stop() {
+        nodeA.fanout.stop();
+        nodeB.fanout.stop();
+    }
+
+    @Test
+    void messagePublishedOnOneNodeReachesTheOtherExactlyOnce() throws Exception {
+        Thread.sleep(500); // let both listeners issue LISTEN
+        nodeA.fanout.publish(7L, Map.of("id", 1, "taskId", 7, "sender", "alice", "content", "hi"));
+
+        Message<?> relayed = nodeB.delivered.poll(5, TimeUnit.SECONDS);
+        assertNotNull(relayed);
+        assertEquals("/topic/tasks/7/receiveMessage", SimpMessageHeaderAccessor.getDestination(relayed.getHeaders()));
+        assertEquals("hi", ((Map<?, ?>) relayed.getPayload()).get("content"));
+
+        // Node A delivered locally and must ignore its own notification
+        assertEquals(1, drain(nodeA.delivered).size());
+        assertTrue(drain(nodeB.delivered).isEmpty());
+    }
+
+    @Test
+    void oversizedPayloadIsRelayedByMessageId() throws Exception {
+        String big = "x".repeat(PostgresChatFanout.MAX_NOTIFY_BYTES + 100);
+        when(messageRepository.findDtoById(anyLong()))
+                .thenReturn(Optional.of(new MessageDto(42L, 7L, "alice", big, OffsetDateTime.now())));
+        Thread.sleep(500);
+
+        nodeA.fanout.publish(7L, Map.of("id", 42L, "taskId", 7L, "sender", "alice", "content", big));
+
+        Message<?> relayed = nodeB.delivered.poll(5, TimeUnit.SECONDS);
+        assertNotNull(relayed);
+        assertEquals(big, ((Map<?, ?>) relayed.getPayload()).get("content"));
+    }
+
+    private static List<Message<?>> drain(BlockingQueue<Message<?>> queue) throws InterruptedException {
+        Thread.sleep(300);
+        List<Message<?>> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        return rest;
+    }
+}
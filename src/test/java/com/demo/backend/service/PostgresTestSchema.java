@@ -0,0 +1,68 @@
+package com.demo.backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * A throwaway schema migrated with the application's Flyway scripts, dropped again on close.
+ * The Postgres tests are all gated on {@link #DB_URL_ENV}: they run only when it points at a
+ * local database, e.g. jdbc:postgresql://localhost:5432/postgres (user/password from
+ * TEST_DB_USER / TEST_DB_PASSWORD).
+ */
+final class PostgresTestSchema implements AutoCloseable {
+
+    static final String DB_URL_ENV = "TEST_DB_URL";
+
+    final HikariDataSource dataSource;
+    final JdbcTemplate jdbc;
+    private final String schema;
+
+    PostgresTestSchema(String schema, int poolSize) {
+        this.schema = schema;
+        DataSourceProperties connection = connection();
+        String url = connection.getUrl();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url + (url.contains("?") ? "&" : "?") + "currentSchema=" + schema);
+        dataSource.setUsername(connection.getUsername());
+        dataSource.setPassword(connection.getPassword());
+        dataSource.setMaximumPoolSize(poolSize);
+        jdbc = new JdbcTemplate(dataSource);
+
+        jdbc.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(schema)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    /** The test database itself, for tests that need a connection outside any schema. */
+    static DataSourceProperties connection() {
+        DataSourceProperties props = new DataSourceProperties();
+        props.setUrl(System.getenv(DB_URL_ENV));
+        props.setUsername(System.getenv().getOrDefault("TEST_DB_USER", "postgres"));
+        props.setPassword(System.getenv().getOrDefault("TEST_DB_PASSWORD", "postgres"));
+        return props;
+    }
+
+    /** Inserts a user and returns its id. */
+    long user(String username) {
+        return jdbc.queryForObject("INSERT INTO users (username, email, password_hash, role) " +
+                "VALUES (?, ?, 'x', 'FREELANCER') RETURNING id", Long.class, username, username + "@example.com");
+    }
+
+    /** Inserts a task owned by the given user and returns its id. */
+    long task(long ownerId, String status) {
+        return jdbc.queryForObject("INSERT INTO tasks (title, budget, status, created_by) " +
+                "VALUES ('Task', 100, ?, ?) RETURNING id", Long.class, status, ownerId);
+    }
+
+    @Override
+    public void close() {
+        jdbc.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        dataSource.close();
+    }
+}
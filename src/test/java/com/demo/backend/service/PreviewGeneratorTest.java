@@ -0,0 +1,75 @@
+package com.demo.backend.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreviewGeneratorTest {
+
+    private final PreviewGenerator generator = new PreviewGenerator(128, 36);
+
+    @Test
+    void scalesLargeImageToThumbnailAndKeepsOriginalDimensions() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB), "png", png);
+
+        PreviewGenerator.Preview preview = generator.image(new ByteArrayInputStream(png.toByteArray()));
+
+        assertEquals(2000, preview.width());
+        assertEquals(1000, preview.height());
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(preview.thumbnail()));
+        assertEquals(128, thumbnail.getWidth());
+        assertEquals(64, thumbnail.getHeight());
+    }
+
+    @Test
+    void readsPageCountAndRendersFirstPdfPage(@TempDir Path dir) throws Exception {
+        Path pdf = dir.resolve("brief.pdf");
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.save(pdf.toFile());
+        }
+
+        PreviewGenerator.Preview preview = generator.pdf(pdf);
+
+        assertEquals(2, preview.pageCount());
+        assertEquals(Math.round(PDRectangle.A4.getWidth()), preview.width());
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(preview.thumbnail())));
+    }
+
+    @Test
+    void rendersHugePdfPagesAtReducedResolution(@TempDir Path dir) throws Exception {
+        Path pdf = dir.resolve("poster.pdf");
+        try (PDDocument document = new PDDocument()) {
+            // 14400pt is the largest page PDF allows: 200 inches, 7200px wide even at 36 dpi
+            document.addPage(new PDPage(new PDRectangle(14400, 7200)));
+            document.save(pdf.toFile());
+        }
+
+        assertEquals(72f * 128 * 2 / 14400, generator.dpiFor(new PDRectangle(14400, 7200)), 0.001);
+        assertEquals(36f, generator.dpiFor(new PDRectangle(200, 100)));
+
+        PreviewGenerator.Preview preview = generator.pdf(pdf);
+
+        assertEquals(14400, preview.width());
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(preview.thumbnail()));
+        assertEquals(128, thumbnail.getWidth());
+        assertEquals(64, thumbnail.getHeight());
+    }
+
+    @Test
+    void rejectsContentThatIsNotAnImage() {
+        assertThrows(Exception.class, () -> generator.image(new ByteArrayInputStream("not an image".getBytes())));
+    }
+}
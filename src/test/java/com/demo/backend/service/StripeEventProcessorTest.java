@@ -0,0 +1,145 @@
+package com.demo.backend.service;
+
+import com.demo.backend.model.Payment;
+import com.demo.backend.model.StripeEvent;
+import com.demo.backend.repository.PaymentRepository;
+import com.demo.backend.repository.StripeEventRepository;
+import com.demo.backend.repository.TaskRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StripeEventProcessorTest {
+
+    private static final String PI = "pi_1";
+    private static final OffsetDateTime T0 = OffsetDateTime.parse("2026-01-01T00:00:00Z");
+
+    private final StripeEventRepository events = mock(StripeEventRepository.class);
+    private final PaymentRepository payments = mock(PaymentRepository.class);
+    private final TransactionTemplate transactions = mock(TransactionTemplate.class);
+    private final List<String> savedStatuses = new ArrayList<>();
+    private final Payment payment = Payment.builder().id(1L).stripePaymentId(PI).status("CREATED").build();
+    private StripeEventProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactions).executeWithoutResult(any());
+        when(events.tryLockPaymentIntent(PI)).thenReturn(true);
+        when(payments.findByStripePaymentId(PI)).thenReturn(Optional.of(payment));
+        when(payments.save(any())).thenAnswer(inv -> {
+            savedStatuses.add(inv.<Payment>getArgument(0).getStatus());
+            return inv.getArgument(0);
+        });
+        processor = new StripeEventProcessor(events, payments, mock(TaskRepository.class), transactions,
+                new ObjectMapper(), new SimpleMeterRegistry(), 1, 100, 3, Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        processor.destroy();
+    }
+
+    private static StripeEvent event(String id, String type, int secondsAfterT0) {
+        return StripeEvent.builder()
+                .id(id).type(type).paymentIntentId(PI).status("PENDING")
+                .payload("{\"data\":{\"object\":{\"id\":\"" + PI + "\",\"object\":\"payment_intent\"}}}")
+                .stripeCreatedAt(T0.plusSeconds(secondsAfterT0))
+                .receivedAt(T0.plusSeconds(secondsAfterT0))
+                .nextAttemptAt(OffsetDateTime.now().minusSeconds(1))
+                .build();
+    }
+
+    @Test
+    void eventsOfOneIntentAreAppliedInCreationOrder() {
+        List<StripeEvent> pending = List.of(event("evt_1", "payment_intent.created", 1),
+                event("evt_2", "payment_intent.processing", 2), event("evt_3", "payment_intent.succeeded", 3));
+        when(events.findPendingForPaymentIntent(PI)).thenReturn(pending);
+
+        processor.process(PI);
+
+        assertEquals(List.of("CREATED", "PROCESSING", "SUCCEEDED"), savedStatuses);
+        assertEquals(T0.plusSeconds(3), payment.getStripeEventCreatedAt());
+        assertTrue(pending.stream().allMatch(e -> "PROCESSED".equals(e.getStatus())));
+    }
+
+    @Test
+    void staleRedeliveryDoesNotRollStateBack() {
+        payment.setStatus("SUCCEEDED");
+        payment.setStripeEventCreatedAt(T0.plusSeconds(10));
+        StripeEvent late = event("evt_old", "payment_intent.processing", 5);
+        when(events.findPendingForPaymentIntent(PI)).thenReturn(List.of(late));
+
+        processor.process(PI);
+
+        assertEquals("SUCCEEDED", payment.getStatus());
+        assertTrue(savedStatuses.isEmpty());
+        assertEquals("PROCESSED", late.getStatus());
+    }
+
+    @Test
+    void sameSecondEventsArrivingOutOfOrderDoNotRegressATerminalState() {
+        // created and succeeded share a second; created was received (and sorted) last
+        StripeEvent succeeded = event("evt_2", "payment_intent.succeeded", 3);
+        StripeEvent created = event("evt_1", "payment_intent.created", 3);
+        created.setReceivedAt(T0.plusSeconds(9));
+        when(events.findPendingForPaymentIntent(PI)).thenReturn(List.of(succeeded, created));
+
+        processor.process(PI);
+
+        assertEquals("SUCCEEDED", payment.getStatus());
+        assertEquals(List.of("SUCCEEDED"), savedStatuses);
+        assertEquals("PROCESSED", created.getStatus());
+    }
+
+    @Test
+    void laterEventsStillMovePaymentForward() {
+        payment.setStatus("SUCCEEDED");
+        payment.setStripeEventCreatedAt(T0.plusSeconds(3));
+        when(events.findPendingForPaymentIntent(PI)).thenReturn(List.of(event("evt_3", "charge.refunded", 3)));
+
+        processor.process(PI);
+
+        assertEquals(List.of("REFUNDED"), savedStatuses);
+    }
+
+    @Test
+    void failingEventBacksOffAndHoldsBackLaterEvents() {
+        StripeEvent failing = event("evt_1", "payment_intent.processing", 1);
+        StripeEvent later = event("evt_2", "payment_intent.succeeded", 2);
+        when(events.findPendingForPaymentIntent(PI)).thenReturn(List.of(failing, later));
+        when(events.findById("evt_1")).thenReturn(Optional.of(failing));
+        doThrow(new IllegalStateException("database down")).when(payments).save(any());
+
+        processor.process(PI);
+
+        assertEquals(1, failing.getAttempts());
+        assertTrue(failing.getNextAttemptAt().isAfter(OffsetDateTime.now()));
+        assertEquals("PENDING", later.getStatus());
+
+        // Next round: the later event is due but stays behind the backing-off one
+        reset(payments);
+        processor.process(PI);
+
+        verifyNoInteractions(payments);
+        assertEquals("PENDING", failing.getStatus());
+        assertEquals("PENDING", later.getStatus());
+    }
+}
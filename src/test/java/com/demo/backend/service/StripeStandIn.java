@@ -0,0 +1,52 @@
+package com.demo.backend.service;
+
+import com.stripe.net.Webhook;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for Stripe's webhook sender: builds event payloads shaped like Stripe's and
+ * signs them the way Stripe does (Stripe-Signature: t=..., v1=HMAC-SHA256 of "t.payload").
+ */
+class StripeStandIn {
+
+    record SignedEvent(String id, String payload, String signature) {}
+
+    private final String webhookSecret;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    StripeStandIn(String webhookSecret) {
+        this.webhookSecret = webhookSecret;
+    }
+
+    SignedEvent paymentIntentEvent(String type, String paymentIntentId, long amount, Long taskId) {
+        String metadata = taskId == null ? "{}" : "{\"task_id\":\"" + taskId + "\"}";
+        return event(type, """
+                {"id":"%s","object":"payment_intent","amount":%d,"currency":"usd","status":"%s","metadata":%s}"""
+                .formatted(paymentIntentId, amount, type.substring(type.indexOf('.') + 1), metadata));
+    }
+
+    SignedEvent chargeEvent(String type, String chargeId, String paymentIntentId) {
+        return event(type, """
+                {"id":"%s","object":"charge","payment_intent":"%s"}""".formatted(chargeId, paymentIntentId));
+    }
+
+    SignedEvent event(String type, String dataObject) {
+        String id = "evt_test_" + sequence.incrementAndGet();
+        long created = Instant.now().getEpochSecond();
+        String payload = """
+                {"id":"%s","object":"event","api_version":"2024-06-20","created":%d,"livemode":false,"type":"%s","data":{"object":%s}}"""
+                .formatted(id, created, type, dataObject);
+        return new SignedEvent(id, payload, sign(payload, created));
+    }
+
+    String sign(String payload, long timestamp) {
+        try {
+            String v1 = Webhook.Util.computeHmacSha256(webhookSecret, timestamp + "." + payload);
+            return "t=" + timestamp + ",v1=" + v1;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
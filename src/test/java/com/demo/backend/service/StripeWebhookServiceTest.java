@@ -0,0 +1,64 @@
+package com.demo.backend.service;
+
+import com.demo.backend.repository.StripeEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.exception.SignatureVerificationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StripeWebhookServiceTest {
+
+    private static final String SECRET = "whsec_test_secret";
+
+    private final StripeEventRepository repository = mock(StripeEventRepository.class);
+    private final StripeWebhookService service =
+            new StripeWebhookService(repository, new ObjectMapper(), new SimpleMeterRegistry(), SECRET);
+    private final StripeStandIn stripe = new StripeStandIn(SECRET);
+
+    @Test
+    void storesVerifiedEventKeyedByIdWithItsPaymentIntent() throws Exception {
+        StripeStandIn.SignedEvent event = stripe.paymentIntentEvent("payment_intent.succeeded", "pi_123", 5000, 7L);
+        when(repository.insertIfAbsent(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        assertTrue(service.receive(event.payload(), event.signature()));
+
+        verify(repository).insertIfAbsent(eq(event.id()), eq("payment_intent.succeeded"), eq("pi_123"),
+                eq(event.payload()), eq("PENDING"), any());
+    }
+
+    @Test
+    void redeliveryIsAcknowledgedButNotStoredTwice() throws Exception {
+        StripeStandIn.SignedEvent event = stripe.chargeEvent("charge.refunded", "ch_1", "pi_456");
+        when(repository.insertIfAbsent(any(), any(), eq("pi_456"), any(), any(), any())).thenReturn(1, 0);
+
+        assertTrue(service.receive(event.payload(), event.signature()));
+        assertFalse(service.receive(event.payload(), event.signature()));
+    }
+
+    @Test
+    void rejectsTamperedPayloadAndWrongSecret() {
+        StripeStandIn.SignedEvent event = stripe.paymentIntentEvent("payment_intent.succeeded", "pi_123", 5000, null);
+        String tampered = event.payload().replace("5000", "1");
+        StripeStandIn.SignedEvent forged = new StripeStandIn("whsec_other").paymentIntentEvent("payment_intent.succeeded", "pi_1", 1, null);
+
+        assertThrows(SignatureVerificationException.class, () -> service.receive(tampered, event.signature()));
+        assertThrows(SignatureVerificationException.class, () -> service.receive(forged.payload(), forged.signature()));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void eventsWithoutPaymentIntentAreStoredAsIgnored() throws Exception {
+        StripeStandIn.SignedEvent event = stripe.event("customer.created", "{\"id\":\"cus_1\",\"object\":\"customer\"}");
+        when(repository.insertIfAbsent(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        service.receive(event.payload(), event.signature());
+
+        verify(repository).insertIfAbsent(eq(event.id()), eq("customer.created"), isNull(), any(), eq("IGNORED"), any());
+        assertNull(StripeEventProcessor.paymentStatusFor("customer.created"));
+        assertEquals("SUCCEEDED", StripeEventProcessor.paymentStatusFor("payment_intent.succeeded"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.demo.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The V12 triggers keeping task_bid_stats in step with bids, checked against a fresh aggregate
+ * after each kind of write.
+ */
+@EnabledIfEnvironmentVariable(named = PostgresTestSchema.DB_URL_ENV, matches = ".+")
+class TaskBidStatsTriggerTest {
+
+    private static final String STATS_SQL = """
+            SELECT task_id, bid_count, amount_sum::numeric(14,2) AS amount_sum,
+                   lowest_amount::numeric(12,2) AS lowest_amount
+            FROM task_bid_stats ORDER BY task_id
+            """;
+
+    private static final String AGGREGATE_SQL = """
+            SELECT t.id AS task_id, count(b.id)::int AS bid_count,
+                   coalesce(sum(b.amount), 0)::numeric(14,2) AS amount_sum,
+                   min(b.amount)::numeric(12,2) AS lowest_amount
+            FROM tasks t LEFT JOIN bids b ON b.task_id = t.id AND b.status <> 'REJECTED'
+            GROUP BY t.id ORDER BY t.id
+            """;
+
+    // Same statement BidRepository.rejectOtherBids issues
+    private static final String REJECT_OTHERS_SQL = "UPDATE bids SET status = 'REJECTED', version = version + 1 " +
+            "WHERE task_id = ? AND id <> ? AND status = 'PENDING'";
+
+    private PostgresTestSchema db;
+    private long owner;
+    private long taskId;
+    private final List<Long> freelancers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        db = new PostgresTestSchema("task_bid_stats_test", 4);
+        owner = db.user("owner");
+        for (int i = 0; i < 5; i++) {
+            freelancers.add(db.user("freelancer" + i));
+        }
+        taskId = db.task(owner, "OPEN");
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+    }
+
+    private long bid(long task, long freelancer, String amount) {
+        return db.jdbc.queryForObject("INSERT INTO bids (task_id, freelancer_id, amount) VALUES (?, ?, ?) RETURNING id",
+                Long.class, task, freelancer, new BigDecimal(amount));
+    }
+
+    private Map<String, Object> stats(long task) {
+        return db.jdbc.queryForMap("SELECT bid_count, amount_sum, lowest_amount FROM task_bid_stats WHERE task_id = ?", task);
+    }
+
+    private void assertStatsMatchBids() {
+        assertEquals(db.jdbc.queryForList(AGGREGATE_SQL), db.jdbc.queryForList(STATS_SQL));
+    }
+
+    @Test
+    void insertsAreCountedSingleAndInBulk() {
+        bid(taskId, freelancers.get(0), "120.00");
+        assertStatsMatchBids();
+
+        db.jdbc.update("INSERT INTO bids (task_id, freelancer_id, amount) VALUES (?, ?, 80), (?, ?, 95), (?, ?, 70)",
+                taskId, freelancers.get(1), taskId, freelancers.get(2), taskId, freelancers.get(3));
+        // Rejected bids never count
+        db.jdbc.update("INSERT INTO bids (task_id, freelancer_id, amount, status) VALUES (?, ?, 10, 'REJECTED')",
+                taskId, freelancers.get(4));
+
+        assertStatsMatchBids();
+        assertEquals(4, stats(taskId).get("bid_count"));
+        assertEquals(0, new BigDecimal("70.00").compareTo((BigDecimal) stats(taskId).get("lowest_amount")));
+    }
+
+    @Test
+    void rejectingOtherBidsLeavesOnlyTheAcceptedOne() {
+        bid(taskId, freelancers.get(0), "50.00");
+        long accepted = bid(taskId, freelancers.get(1), "90.00");
+        bid(taskId, freelancers.get(2), "60.00");
+        long otherTask = db.task(owner, "OPEN");
+        bid(otherTask, freelancers.get(0), "40.00");
+
+        db.jdbc.update("UPDATE bids SET status = 'ACCEPTED' WHERE id = ?", accepted);
+        assertEquals(2, db.jdbc.update(REJECT_OTHERS_SQL, taskId, accepted));
+
+        assertStatsMatchBids();
+        assertEquals(1, stats(taskId).get("bid_count"));
+        assertEquals(0, new BigDecimal("90.00").compareTo((BigDecimal) stats(taskId).get("lowest_amount")));
+    }
+
+    @Test
+    void deletingTheLowestBidRecomputesIt() {
+        long lowest = bid(taskId, freelancers.get(0), "30.00");
+        bid(taskId, freelancers.get(1), "45.00");
+
+        db.jdbc.update("DELETE FROM bids WHERE id = ?", lowest);
+        assertStatsMatchBids();
+
+        db.jdbc.update("DELETE FROM bids WHERE task_id = ?", taskId);
+        assertStatsMatchBids();
+        assertNull(stats(taskId).get("lowest_amount"));
+    }
+
+    @Test
+    void raisingOrMovingTheLowestBidRecomputesIt() {
+        long lowest = bid(taskId, freelancers.get(0), "30.00");
+        long other = bid(taskId, freelancers.get(1), "45.00");
+
+        db.jdbc.update("UPDATE bids SET amount = 60 WHERE id = ?", lowest);
+        assertStatsMatchBids();
+        assertEquals(0, new BigDecimal("45.00").compareTo((BigDecimal) stats(taskId).get("lowest_amount")));
+
+        db.jdbc.update("UPDATE bids SET amount = 20 WHERE id = ?", other);
+        assertStatsMatchBids();
+
+        long otherTask = db.task(owner, "OPEN");
+        db.jdbc.update("UPDATE bids SET task_id = ? WHERE id = ?", otherTask, other);
+        assertStatsMatchBids();
+    }
+
+    @Test
+    void randomWritesKeepStatsEqualToTheAggregate() {
+        List<Long> tasks = List.of(taskId, db.task(owner, "OPEN"), db.task(owner, "OPEN"));
+        Random random = new Random(42);
+        for (int step = 0; step < 200; step++) {
+            long task = tasks.get(random.nextInt(tasks.size()));
+            long freelancer = freelancers.get(random.nextInt(freelancers.size()));
+            String amount = (10 + random.nextInt(200)) + ".00";
+            switch (random.nextInt(5)) {
+                case 0 -> db.jdbc.update("INSERT INTO bids (task_id, freelancer_id, amount) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (task_id, freelancer_id) DO NOTHING", task, freelancer, new BigDecimal(amount));
+                case 1 -> db.jdbc.update("UPDATE bids SET amount = ? WHERE task_id = ? AND freelancer_id = ?",
+                        new BigDecimal(amount), task, freelancer);
+                case 2 -> db.jdbc.update("UPDATE bids SET status = 'REJECTED' WHERE task_id = ? AND freelancer_id = ?",
+                        task, freelancer);
+                case 3 -> db.jdbc.update("DELETE FROM bids WHERE task_id = ? AND freelancer_id = ?", task, freelancer);
+                default -> {
+                    Long keep = db.jdbc.queryForObject("SELECT min(id) FROM bids WHERE task_id = ?", Long.class, task);
+                    if (keep != null) db.jdbc.update(REJECT_OTHERS_SQL, task, keep);
+                }
+            }
+            assertStatsMatchBids();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.demo.backend.service;
+
+import com.demo.backend.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TaskSearchServiceTest {
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final TaskSearchService service = new TaskSearchService(taskRepository);
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(service, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(service, "maxPageSize", 50);
+        ReflectionTestUtils.setField(service, "maxOffset", 100);
+    }
+
+    private static TaskRepository.TaskSearchRow row(String titleHighlight, String snippet) {
+        TaskRepository.TaskSearchRow row = mock(TaskRepository.TaskSearchRow.class);
+        when(row.getId()).thenReturn(1L);
+        when(row.getTitleHighlight()).thenReturn(titleHighlight);
+        when(row.getSnippet()).thenReturn(snippet);
+        return row;
+    }
+
+    @Test
+    void taskTextIsEscapedAndOnlyMatchesAreMarked() {
+        char s = TaskSearchService.MATCH_START, e = TaskSearchService.MATCH_END;
+        var row = row("<img src=x onerror=alert(1)> " + s + "logo" + e, "Need a " + s + "logo" + e + " & \"brand\"</mark>");
+        when(taskRepository.search(anyString(), anyString(), anyInt(), anyLong())).thenReturn(List.of(row));
+
+        var result = service.search("logo", null, null, null).getItems().get(0);
+
+        assertEquals("&lt;img src=x onerror=alert(1)&gt; <mark>logo</mark>", result.getTitleHighlight());
+        assertEquals("Need a <mark>logo</mark> &amp; &quot;brand&quot;&lt;/mark&gt;", result.getSnippet());
+    }
+
+    @Test
+    void pagesBeyondMaxOffsetAreRefused() {
+        var rows = List.of(row("a", "a"), row("b", "b"), row("c", "c"));
+        when(taskRepository.search(anyString(), anyString(), anyInt(), anyLong())).thenReturn(rows);
+
+        // offset 100 is the last page allowed, so it never reports another one
+        var last = service.search("logo", null, 50, 2);
+        assertFalse(last.isHasMore());
+        verify(taskRepository).search("logo", "", 3, 100L);
+
+        assertThrows(IllegalArgumentException.class, () -> service.search("logo", null, 51, 2));
+        verifyNoMoreInteractions(taskRepository);
+    }
+}
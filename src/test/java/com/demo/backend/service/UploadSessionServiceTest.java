@@ -0,0 +1,120 @@
+package com.demo.backend.service;
+
+import com.demo.backend.model.UploadPart;
+import com.demo.backend.model.UploadSession;
+import com.demo.backend.repository.UploadPartRepository;
+import com.demo.backend.repository.UploadSessionRepository;
+import com.demo.backend.storage.StorageBackend;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UploadSessionServiceTest {
+
+    private static final long PART_SIZE = 5L * 1024 * 1024;
+
+    private final UploadSessionRepository sessions = mock(UploadSessionRepository.class);
+    private final UploadPartRepository parts = mock(UploadPartRepository.class);
+    private final StorageBackend storage = mock(StorageBackend.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final UploadSessionService service = new UploadSessionService(sessions, parts, storage,
+            new TransactionTemplate(transactionManager), PART_SIZE, Duration.ofHours(24));
+
+    private static UploadSession session(UUID id, String status) {
+        return UploadSession.builder()
+                .id(id)
+                .userId(1L)
+                .objectKey("uploads/1/" + id)
+                .filename("a.bin")
+                .partSize(PART_SIZE)
+                .storageUploadId("s3-" + id)
+                .status(status)
+                .expiresAt(OffsetDateTime.now().plusHours(1))
+                .build();
+    }
+
+    private UUID existing(String status) {
+        UUID id = UUID.randomUUID();
+        when(sessions.findById(id)).thenReturn(Optional.of(session(id, status)));
+        return id;
+    }
+
+    @Test
+    void completeLosingTheClaimLeavesStorageAlone() {
+        UUID id = existing("COMPLETING");
+        when(sessions.transition(eq(id), eq("OPEN"), eq("COMPLETING"), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> service.complete(1L, id));
+        verifyNoInteractions(storage);
+        verify(sessions, never()).deleteById(any());
+    }
+
+    @Test
+    void completeWithAMissingPartReopensTheSession() {
+        UUID id = existing("OPEN");
+        when(sessions.transition(eq(id), eq("OPEN"), eq("COMPLETING"), any())).thenReturn(1);
+        when(parts.findBySessionIdOrderByPartNumber(id)).thenReturn(List.of(
+                UploadPart.builder().sessionId(id).partNumber(1).size(PART_SIZE).etag("e1").build(),
+                UploadPart.builder().sessionId(id).partNumber(3).size(10).etag("e3").build()));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> service.complete(1L, id));
+
+        assertEquals("Part 2 is missing", ex.getMessage());
+        verify(sessions).transition(eq(id), eq("COMPLETING"), eq("OPEN"), any());
+        verify(sessions, never()).deleteById(any());
+    }
+
+    @Test
+    void abortLosingTheClaimLeavesStorageAlone() {
+        UUID id = existing("COMPLETING");
+        when(sessions.transition(eq(id), eq("OPEN"), eq("ABORTING"), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> service.abort(1L, id));
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void sweepLeasesExpiredSessionsAndKeepsGoingPastAFailure() throws IOException {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        UploadSession failing = session(UUID.randomUUID(), "OPEN");
+        UploadSession expired = session(UUID.randomUUID(), "ABORTING");
+        when(sessions.lockExpired(anyInt())).thenReturn(List.of(failing, expired));
+        doThrow(new IOException("storage down")).when(storage).abortMultipart(failing.getObjectKey(), failing.getStorageUploadId());
+
+        service.sweepExpired();
+
+        // Both are leased, so a failed cleanup is retried by a later sweep once the lease runs out
+        assertEquals("EXPIRING", failing.getStatus());
+        assertEquals("EXPIRING", expired.getStatus());
+        assertTrue(expired.getExpiresAt().isAfter(OffsetDateTime.now().plusMinutes(10)));
+        verify(transactionManager).commit(any());
+        verify(storage).abortMultipart(expired.getObjectKey(), expired.getStorageUploadId());
+        verify(sessions).deleteById(expired.getId());
+        verify(sessions, never()).deleteById(failing.getId());
+    }
+
+    @Test
+    void sweepWithNothingExpiredTouchesNoStorage() throws IOException {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(sessions.lockExpired(anyInt())).thenReturn(List.of());
+
+        service.sweepExpired();
+
+        verify(storage, never()).abortMultipart(anyString(), anyString());
+    }
+}
@@ -0,0 +1,107 @@
+package com.demo.backend.service;
+
+import com.demo.backend.exceptions.ChatBackpressureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WriteBehindChatMessagePersisterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Long> insertedTaskIds = new ArrayList<>();
+
+    private WriteBehindChatMessagePersister persister(int batchSize) {
+        AtomicLong sequence = new AtomicLong();
+        when(jdbcTemplate.queryForObject(contains("increment_by"), eq(Long.class))).thenReturn(1L);
+        when(jdbcTemplate.queryForObject(contains("nextval"), eq(Long.class)))
+                .thenAnswer(inv -> sequence.incrementAndGet());
+        return new WriteBehindChatMessagePersister(jdbcTemplate, registry, 100, batchSize, 1000, 200, 3);
+    }
+
+    private static ParameterizedPreparedStatementSetter<Object> anySetter() {
+        return any();
+    }
+
+    /** Fails the whole batch when any row belongs to a task in {@code badTasks}, like a foreign key would. */
+    private void insertFailsFor(List<Long> badTasks) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), anySetter()))
+                .thenAnswer(inv -> {
+                    List<Long> taskIds = new ArrayList<>();
+                    PreparedStatement ps = mock(PreparedStatement.class);
+                    doAnswer(set -> {
+                        if ((int) set.getArgument(0) == 2) taskIds.add(set.getArgument(1));
+                        return null;
+                    }).when(ps).setLong(anyInt(), anyLong());
+                    ParameterizedPreparedStatementSetter<Object> setter = inv.getArgument(3);
+                    Collection<Object> rows = inv.getArgument(1);
+                    for (Object row : rows) setter.setValues(ps, row);
+                    if (taskIds.stream().anyMatch(badTasks::contains)) {
+                        throw new DataIntegrityViolationException("violates foreign key constraint");
+                    }
+                    insertedTaskIds.addAll(taskIds);
+                    return new int[0][0];
+                });
+    }
+
+    private double dropped() {
+        return registry.counter("chat.writebehind.dropped").count();
+    }
+
+    @Test
+    void constraintViolationDropsOnlyTheOffendingRows() {
+        insertFailsFor(List.of(3L, 6L));
+        WriteBehindChatMessagePersister persister = persister(8);
+        persister.start();
+        for (long task = 1; task <= 8; task++) persister.persist(task, 1L, "alice", "hi");
+        persister.stop();
+
+        assertEquals(List.of(1L, 2L, 4L, 5L, 7L, 8L), insertedTaskIds.stream().sorted().toList());
+        assertEquals(2, dropped());
+    }
+
+    @Test
+    void transientFailureIsRetriedWithoutSplitting() {
+        AtomicInteger calls = new AtomicInteger();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), anySetter()))
+                .thenAnswer(inv -> {
+                    if (calls.incrementAndGet() == 1) throw new TransientDataAccessResourceException("connection reset");
+                    insertedTaskIds.add((long) ((Collection<?>) inv.getArgument(1)).size());
+                    return new int[0][0];
+                });
+        WriteBehindChatMessagePersister persister = persister(4);
+        persister.start();
+        for (long task = 1; task <= 4; task++) persister.persist(task, 1L, "alice", "hi");
+        persister.stop();
+
+        assertEquals(List.of(4L), insertedTaskIds);
+        assertEquals(2, calls.get());
+        assertEquals(0, dropped());
+    }
+
+    @Test
+    void sendsAfterStopAreRefusedInsteadOfQueuedForNobody() {
+        insertFailsFor(List.of());
+        WriteBehindChatMessagePersister persister = persister(4);
+        persister.start();
+        persister.persist(1L, 1L, "alice", "hi");
+        persister.stop();
+
+        assertThrows(ChatBackpressureException.class, () -> persister.persist(2L, 1L, "alice", "late"));
+        assertEquals(List.of(1L), insertedTaskIds);
+    }
+}
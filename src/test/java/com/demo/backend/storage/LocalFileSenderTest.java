@@ -0,0 +1,60 @@
+package com.demo.backend.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFileSenderTest {
+
+    @TempDir
+    Path dir;
+
+    private final LocalFileSender sender = new LocalFileSender();
+
+    private Path file() throws Exception {
+        return Files.writeString(dir.resolve("notes.txt"), "0123456789", StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void servesSingleRangeAsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/notes.txt");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        sender.send(file(), request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertEquals("2345", response.getContentAsString());
+    }
+
+    @Test
+    void answersNotModifiedForMatchingEtagAndRejectsUnsatisfiableRange() throws Exception {
+        Path file = file();
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        sender.send(file, new MockHttpServletRequest("GET", "/api/files/notes.txt"), first);
+        assertEquals(200, first.getStatus());
+        assertEquals("0123456789", first.getContentAsString());
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/files/notes.txt");
+        conditional.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        sender.send(file, conditional, notModified);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+
+        MockHttpServletRequest outOfRange = new MockHttpServletRequest("GET", "/api/files/notes.txt");
+        outOfRange.addHeader("Range", "bytes=50-60");
+        MockHttpServletResponse unsatisfiable = new MockHttpServletResponse();
+        sender.send(file, outOfRange, unsatisfiable);
+        assertEquals(416, unsatisfiable.getStatus());
+        assertEquals("bytes */10", unsatisfiable.getHeader("Content-Range"));
+    }
+}
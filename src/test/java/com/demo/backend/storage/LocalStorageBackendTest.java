@@ -0,0 +1,63 @@
+package com.demo.backend.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalStorageBackendTest {
+
+    @TempDir
+    Path root;
+
+    private LocalStorageBackend backend() throws Exception {
+        return new LocalStorageBackend(root.resolve("files").toString(), root.resolve("parts").toString(), 1024);
+    }
+
+    @Test
+    void storesContentLargerThanOneChunk() throws Exception {
+        byte[] content = new byte[10_000];
+        new Random(1).nextBytes(content);
+        LocalStorageBackend backend = backend();
+
+        StoredObject stored = backend.store("uploads/a.bin", new ByteArrayInputStream(content), content.length, null);
+
+        assertEquals(content.length, stored.size());
+        assertArrayEquals(content, Files.readAllBytes(root.resolve("files/uploads/a.bin")));
+        try (var files = Files.list(root.resolve("files/uploads"))) {
+            assertEquals(1, files.count()); // temp file moved into place
+        }
+    }
+
+    @Test
+    void rejectsTruncatedUploadAndKeysOutsideRoot() throws Exception {
+        LocalStorageBackend backend = backend();
+
+        assertThrows(Exception.class,
+                () -> backend.store("uploads/b.bin", new ByteArrayInputStream(new byte[10]), 20, null));
+        assertFalse(Files.exists(root.resolve("files/uploads/b.bin")));
+        assertThrows(IllegalArgumentException.class, () -> backend.resolve("../etc/passwd"));
+        assertEquals("passwd", StorageKeys.sanitize("../../etc/passwd"));
+    }
+
+    @Test
+    void assemblesMultipartUploadInPartOrderAndRemovesParts() throws Exception {
+        LocalStorageBackend backend = backend();
+        String uploadId = backend.initiateMultipart("uploads/c.txt", "text/plain");
+
+        String second = backend.uploadPart("uploads/c.txt", uploadId, 2, new ByteArrayInputStream("world".getBytes()), 5);
+        String first = backend.uploadPart("uploads/c.txt", uploadId, 1, new ByteArrayInputStream("hello ".getBytes()), 6);
+        StoredObject stored = backend.completeMultipart("uploads/c.txt", uploadId,
+                List.of(new PartRef(1, first), new PartRef(2, second)));
+
+        assertEquals(11, stored.size());
+        assertEquals("hello world", Files.readString(root.resolve("files/uploads/c.txt")));
+        assertFalse(Files.exists(root.resolve("parts").resolve(uploadId)));
+    }
+}
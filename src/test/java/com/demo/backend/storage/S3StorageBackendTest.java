@@ -0,0 +1,46 @@
+package com.demo.backend.storage;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class S3StorageBackendTest {
+
+    @Test
+    void downloadUrlIsSignedAndExpires() {
+        try (S3Presigner presigner = S3Presigner.builder()
+                .region(Region.EU_CENTRAL_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("AKIDEXAMPLE", "secret")))
+                .build()) {
+            S3StorageBackend backend = new S3StorageBackend(mock(S3Client.class), presigner, "files", Duration.ofMinutes(5));
+
+            URI url = backend.temporaryDownloadUrl("blobs/ab/" + "ab".repeat(32)).orElseThrow();
+
+            assertTrue(url.getHost().startsWith("files.s3."), url.toString());
+            assertTrue(url.getQuery().contains("X-Amz-Signature="));
+            assertTrue(url.getQuery().contains("X-Amz-Expires=300"));
+        }
+    }
+
+    @Test
+    void abortingAnUploadThatIsAlreadyGoneSucceeds() {
+        S3Client s3 = mock(S3Client.class);
+        when(s3.abortMultipartUpload(any(AbortMultipartUploadRequest.class)))
+                .thenThrow(NoSuchUploadException.builder().message("The specified upload does not exist").build());
+        S3StorageBackend backend = new S3StorageBackend(s3, mock(S3Presigner.class), "files", Duration.ofMinutes(5));
+
+        assertDoesNotThrow(() -> backend.abortMultipart("uploads/1/a.bin", "upload-1"));
+    }
+}